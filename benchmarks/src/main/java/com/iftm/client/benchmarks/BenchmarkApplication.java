@@ -0,0 +1,73 @@
+package com.iftm.client.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.DsclientApplication;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Sobe o contexto da aplicacao sem servidor web, sobre um H2 em memoria proprio,
+ * e insere rows clientes sinteticos alem dos registros de exemplo.
+ */
+public final class BenchmarkApplication {
+
+	private static final String[] FIRST = { "Ana", "Bruno", "Carla", "Diego", "Elisa", "Fábio", "Gisele", "Hugo",
+			"Iara", "João", "Kátia", "Luís", "Marta", "Nilo", "Otávio", "Paula", "Quitéria", "Rui", "Sônia", "Tiago" };
+	private static final String[] LAST = { "Silva", "Souza", "Oliveira", "Santos", "Pereira", "Lima", "Carvalho",
+			"Ribeiro", "Almeida", "Conceição", "Araújo", "Gomes", "Barbosa", "Rocha", "Moreira", "Teixeira" };
+
+	public static final long SEED = 42L;
+
+	private BenchmarkApplication() {
+	}
+
+	public static ConfigurableApplicationContext start(int rows, String... properties) {
+		List<String> all = new ArrayList<>(List.of(
+				"spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+				"spring.jpa.show-sql=false",
+				"spring.h2.console.enabled=false",
+				"logging.level.root=WARN"));
+		all.addAll(List.of(properties));
+		// Como argumentos de linha de comando: properties() do builder so define
+		// padroes, que o application.properties sobrescreveria
+		String[] args = all.stream().map(property -> "--" + property).toArray(String[]::new);
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(DsclientApplication.class)
+				.web(WebApplicationType.NONE)
+				.run(args);
+		seed(context.getBean(ClientService.class), rows);
+		return context;
+	}
+
+	private static void seed(ClientService service, int rows) {
+		Random random = new Random(SEED);
+		List<ClientDTO> chunk = new ArrayList<>(1000);
+		for (int i = 0; i < rows; i++) {
+			chunk.add(randomClient(random, i));
+			if (chunk.size() == 1000) {
+				service.upsertAll(chunk);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			service.upsertAll(chunk);
+		}
+	}
+
+	public static ClientDTO randomClient(Random random, int i) {
+		String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)] + " "
+				+ LAST[random.nextInt(LAST.length)] + " " + i;
+		double income = 1000.0 + 100.0 * random.nextInt(200);
+		Instant birthDate = Instant.parse("1930-01-01T00:00:00Z").plusSeconds(random.nextInt(80 * 365) * 86400L);
+		return new ClientDTO(null, name, String.format("%011d", 90_000_000_000L + i), income, birthDate,
+				random.nextInt(5));
+	}
+
+}
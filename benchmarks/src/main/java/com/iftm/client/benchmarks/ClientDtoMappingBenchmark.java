@@ -0,0 +1,48 @@
+package com.iftm.client.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientDtoMappingBenchmark {
+
+	private Client entity;
+	private ClientDTO dto;
+
+	@Setup
+	public void setup() {
+		dto = BenchmarkApplication.randomClient(new Random(BenchmarkApplication.SEED), 1);
+		dto.setId(1L);
+		entity = dto.toEntity();
+	}
+
+	@Benchmark
+	public ClientDTO entityToDto() {
+		return new ClientDTO(entity);
+	}
+
+	@Benchmark
+	public Client dtoToEntity() {
+		return dto.toEntity();
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.iftm.client.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Latencia de findById com e sem o cache de leitura. O modo SampleTime publica
+ * os percentis (p0.50, p0.99...) no resultado JSON. Os caches de segundo nivel
+ * e de consultas do Hibernate seguem hibernateCache, desligados por padrao: com
+ * cacheEnabled=false cada chamada chega ao banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ClientFindByIdBenchmark {
+
+	@Param({ "10000" })
+	public int rows;
+
+	@Param({ "true", "false" })
+	public boolean cacheEnabled;
+
+	@Param({ "false" })
+	public boolean hibernateCache;
+
+	// Quantidade de ids distintos consultados (conjunto "quente")
+	@Param({ "1000" })
+	public int hotIds;
+
+	private ConfigurableApplicationContext context;
+	private ClientService service;
+
+	@Setup
+	public void setup() {
+		context = BenchmarkApplication.start(rows,
+				"client.cache.enabled=" + cacheEnabled,
+				"spring.jpa.properties.hibernate.cache.use_second_level_cache=" + hibernateCache,
+				"spring.jpa.properties.hibernate.cache.use_query_cache=" + hibernateCache);
+		service = context.getBean(ClientService.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ClientDTO findById() {
+		return service.findById(1L + ThreadLocalRandom.current().nextInt(hotIds));
+	}
+
+}
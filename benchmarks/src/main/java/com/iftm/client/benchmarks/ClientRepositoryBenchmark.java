@@ -0,0 +1,102 @@
+package com.iftm.client.benchmarks;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+
+/*
+ * Um benchmark por consulta do ClientRepository. Rodar com varios valores de
+ * rows mostra como cada consulta escala com o tamanho da tabela; por isso os
+ * caches de segundo nivel e de consultas do Hibernate ficam desligados por
+ * padrao (hibernateCache=false) e cada chamada chega ao banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientRepositoryBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	public int rows;
+
+	@Param({ "false" })
+	public boolean hibernateCache;
+
+	private ConfigurableApplicationContext context;
+	private ClientRepository repository;
+
+	@Setup
+	public void setup() {
+		context = BenchmarkApplication.start(rows,
+				"spring.jpa.properties.hibernate.cache.use_second_level_cache=" + hibernateCache,
+				"spring.jpa.properties.hibernate.cache.use_query_cache=" + hibernateCache);
+		repository = context.getBean(ClientRepository.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<Client> findByNameIgnoreCase() {
+		return repository.findByNameIgnoreCase("GILBERTO GIL");
+	}
+
+	@Benchmark
+	public List<Client> findByNameContainingIgnoreCase() {
+		return repository.findByNameContainingIgnoreCase("conceicao evaristo");
+	}
+
+	@Benchmark
+	public List<Client> findByNameStartingWithIgnoreCase() {
+		return repository.findByNameStartingWithIgnoreCase("gilberto");
+	}
+
+	@Benchmark
+	public List<Client> findByIncomeGreaterThan() {
+		return repository.findByIncomeGreaterThan(20500.0);
+	}
+
+	@Benchmark
+	public List<Client> findByIncomeLessThan() {
+		return repository.findByIncomeLessThan(1100.0);
+	}
+
+	@Benchmark
+	public List<Client> findByIncomeBetween() {
+		return repository.findByIncomeBetween(9950.0, 10050.0);
+	}
+
+	@Benchmark
+	public List<Client> findByIncomeEqual() {
+		return repository.findByIncomeEqual(7500.0);
+	}
+
+	@Benchmark
+	public List<Client> findByBirthDateBetween() {
+		return repository.findByBirthDateBetween(Instant.parse("1960-04-01T00:00:00Z"),
+				Instant.parse("1960-04-30T00:00:00Z"));
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.iftm.client.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientSliceDTO;
+import com.iftm.client.services.ClientService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientServiceBenchmark {
+
+	@Param({ "10000" })
+	public int rows;
+
+	@Param({ "12", "100", "1000" })
+	public int pageSize;
+
+	private static final List<String> FIELDS = List.of("id", "name");
+
+	private ConfigurableApplicationContext context;
+	private ClientService service;
+	private int pages;
+
+	@Setup
+	public void setup() {
+		context = BenchmarkApplication.start(rows);
+		service = context.getBean(ClientService.class);
+		pages = Math.max(1, rows / pageSize);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPagedRandomPage() {
+		int page = ThreadLocalRandom.current().nextInt(pages);
+		return service.findAllPaged(PageRequest.of(page, pageSize, Direction.ASC, "name"));
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPagedLastPage() {
+		return service.findAllPaged(PageRequest.of(pages - 1, pageSize, Direction.ASC, "name"));
+	}
+
+	@Benchmark
+	public Page<Map<String, Object>> findAllPagedFieldsRandomPage() {
+		int page = ThreadLocalRandom.current().nextInt(pages);
+		return service.findAllPaged(PageRequest.of(page, pageSize, Direction.ASC, "name"), FIELDS);
+	}
+
+	@Benchmark
+	public ClientSliceDTO findAllKeysetFirstPage() {
+		return service.findAllKeyset("name", Direction.ASC, pageSize, null);
+	}
+
+}
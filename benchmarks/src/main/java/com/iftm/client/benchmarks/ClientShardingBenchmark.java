@@ -0,0 +1,102 @@
+package com.iftm.client.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Vazao com os clientes particionados em 1, 2 ou 4 bancos H2 em memoria: as
+ * escritas se dividem entre os shards e as listagens viram uma consulta por
+ * shard em paralelo, intercaladas no final. O cache de leitura e os caches de
+ * segundo nivel e de consultas do Hibernate ficam desligados para que findById
+ * e a primeira pagina cheguem ao banco de cada shard. Com as 8 threads pedindo a
+ * mesma pagina, o ReadCoalescer divide cada ida ao banco entre elas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ClientShardingBenchmark {
+
+	@Param({ "10000" })
+	public int rows;
+
+	@Param({ "1", "2", "4" })
+	public int shards;
+
+	private final AtomicInteger inserted = new AtomicInteger();
+
+	private ConfigurableApplicationContext context;
+	private ClientService service;
+	private List<Long> ids;
+
+	@Setup
+	public void setup() {
+		String prefix = "jdbc:h2:mem:bench-shard-" + System.nanoTime() + "-";
+		List<String> urls = new ArrayList<>();
+		for (int i = 1; i < shards; i++) {
+			urls.add(prefix + i + ";DB_CLOSE_DELAY=-1");
+		}
+		context = BenchmarkApplication.start(rows,
+				"client.sharding.enabled=" + (shards > 1),
+				"client.sharding.shard-urls=" + String.join(",", urls),
+				"spring.flyway.locations=classpath:db/migration",
+				"client.cache.enabled=false",
+				"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+				"spring.jpa.properties.hibernate.cache.use_query_cache=false",
+				"client.execution.pool-size=16");
+		service = context.getBean(ClientService.class);
+		ids = service.findIdsByBirthDateBetween(Instant.parse("1900-01-01T00:00:00Z"),
+				Instant.parse("2100-01-01T00:00:00Z"), 0L, rows);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ClientDTO findById() {
+		return service.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+	}
+
+	@Benchmark
+	public ClientDTO insert() {
+		int i = rows + inserted.getAndIncrement();
+		return service.insert(BenchmarkApplication.randomClient(new Random(i), i));
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPagedFirstPage() {
+		return service.findAllPaged(PageRequest.of(0, 12, Direction.ASC, "name"));
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.iftm.client.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Teste de carga em malha fechada contra uma instancia ja em execucao: mantem
+ * "concurrency" requisicoes em voo (uma conexao cada) por "seconds" segundos e
+ * imprime vazao e percentis de latencia. Para comparar os modos, suba a
+ * aplicacao com --client.execution.mode=servlet e depois =async.
+ *
+ *   java -cp <classpath> com.iftm.client.benchmarks.LoadTest http://localhost:8080/clients 1000 30
+ *
+ * Se a URL terminar em /clients, cada requisicao busca um id aleatorio entre 1 e "ids".
+ */
+public final class LoadTest {
+
+	private LoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		String url = args.length > 0 ? args[0] : "http://localhost:8080/clients";
+		int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		int ids = args.length > 3 ? Integer.parseInt(args[3]) : 13;
+
+		ExecutorService callbacks = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.executor(callbacks)
+				.build();
+
+		LongAdder ok = new LongAdder();
+		LongAdder failed = new LongAdder();
+		ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		CountDownLatch done = new CountDownLatch(concurrency);
+
+		for (int i = 0; i < concurrency; i++) {
+			new Worker(client, url, ids, deadline, ok, failed, latencies, done).next();
+		}
+		done.await();
+		callbacks.shutdown();
+
+		long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+		Arrays.sort(sorted);
+		System.out.printf("url=%s concurrency=%d seconds=%d%n", url, concurrency, seconds);
+		System.out.printf("requests ok=%d failed=%d throughput=%.1f req/s%n", ok.sum(), failed.sum(),
+				ok.sum() / (double) seconds);
+		if (sorted.length > 0) {
+			System.out.printf("latency ms p50=%.2f p90=%.2f p99=%.2f max=%.2f%n", percentile(sorted, 50),
+					percentile(sorted, 90), percentile(sorted, 99), sorted[sorted.length - 1] / 1e6);
+		}
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1] / 1e6;
+	}
+
+	private static final class Worker {
+
+		private final HttpClient client;
+		private final String url;
+		private final int ids;
+		private final long deadline;
+		private final LongAdder ok;
+		private final LongAdder failed;
+		private final ConcurrentLinkedQueue<Long> latencies;
+		private final CountDownLatch done;
+
+		Worker(HttpClient client, String url, int ids, long deadline, LongAdder ok, LongAdder failed,
+				ConcurrentLinkedQueue<Long> latencies, CountDownLatch done) {
+			this.client = client;
+			this.url = url;
+			this.ids = ids;
+			this.deadline = deadline;
+			this.ok = ok;
+			this.failed = failed;
+			this.latencies = latencies;
+			this.done = done;
+		}
+
+		void next() {
+			if (System.nanoTime() >= deadline) {
+				done.countDown();
+				return;
+			}
+			String target = url.endsWith("/clients") ? url + "/" + (1 + ThreadLocalRandom.current().nextInt(ids)) : url;
+			HttpRequest request = HttpRequest.newBuilder(URI.create(target)).timeout(Duration.ofSeconds(60)).GET().build();
+			long start = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+				if (error == null && response.statusCode() < 400) {
+					ok.increment();
+					latencies.add(System.nanoTime() - start);
+				} else {
+					failed.increment();
+				}
+				next();
+			});
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.iftm.client.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedOutputStream;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.formats.ClientProtobuf;
+import com.iftm.client.formats.CompactFormats;
+
+/*
+ * Compara o JSON atual (Page completo do Spring) com CBOR, Smile e Protobuf
+ * (pagina enxuta, datas em milissegundos, renda em centavos): serializacao da
+ * pagina e ida e volta de uma lista, como no /clients/batch. O tamanho de cada
+ * payload e impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+	@Param({ "json", "cbor", "smile", "protobuf" })
+	public String format;
+
+	@Param({ "12", "100", "1000" })
+	public int pageSize;
+
+	private ObjectMapper mapper;
+	private JavaType listType;
+	private Page<ClientDTO> page;
+	private List<ClientDTO> list;
+	private byte[] listBytes;
+
+	@Setup
+	public void setup() throws IOException {
+		CompactFormats formats = new CompactFormats(Jackson2ObjectMapperBuilder.json());
+		switch (format) {
+		case "json":
+			mapper = Jackson2ObjectMapperBuilder.json().build();
+			break;
+		case "cbor":
+			mapper = formats.getCbor();
+			break;
+		case "smile":
+			mapper = formats.getSmile();
+			break;
+		default:
+			mapper = null;
+		}
+		if (mapper != null) {
+			listType = mapper.getTypeFactory().constructCollectionType(List.class, ClientDTO.class);
+		}
+		Random random = new Random(BenchmarkApplication.SEED);
+		list = new ArrayList<>(pageSize);
+		for (int i = 0; i < pageSize; i++) {
+			ClientDTO dto = BenchmarkApplication.randomClient(random, i);
+			dto.setId((long) i + 1);
+			dto.setVersion(0L);
+			list.add(dto);
+		}
+		page = new PageImpl<>(list, PageRequest.of(0, pageSize), 100_000);
+		listBytes = writeList();
+		System.out.printf("%n%s pageSize=%d: page %d bytes, list %d bytes%n", format, pageSize,
+				serializePage().length, listBytes.length);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws IOException {
+		if (mapper != null) {
+			return mapper.writeValueAsBytes(page);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+		ClientProtobuf.writePage(out, page);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] serializeList() throws IOException {
+		return writeList();
+	}
+
+	@Benchmark
+	public List<ClientDTO> deserializeList() throws IOException {
+		if (mapper != null) {
+			return mapper.readValue(listBytes, listType);
+		}
+		List<ClientDTO> result = new ArrayList<>(pageSize);
+		ClientProtobuf.Reader reader = ClientProtobuf.reader(new ByteArrayInputStream(listBytes));
+		for (ClientDTO dto = reader.next(); dto != null; dto = reader.next()) {
+			result.add(dto);
+		}
+		return result;
+	}
+
+	private byte[] writeList() throws IOException {
+		if (mapper != null) {
+			return mapper.writeValueAsBytes(list);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+		ClientProtobuf.writeClients(out, list.iterator());
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+}
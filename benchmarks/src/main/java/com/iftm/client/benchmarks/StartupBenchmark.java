@@ -0,0 +1,88 @@
+package com.iftm.client.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Tempo ate a primeira requisicao: sobe a aplicacao em um processo novo e mede
+ * do start do processo ate GET /clients responder 200. Compara o modo antigo
+ * (perfil test, beans criados no boot), o perfil prod e o perfil prod com o
+ * arquivo CDS gerado por mvn -Dcds package.
+ *
+ *   mvn -Dcds package -DskipTests
+ *   java -cp <classpath> com.iftm.client.benchmarks.StartupBenchmark target/dsclient-0.0.1-SNAPSHOT.jar 5
+ */
+public final class StartupBenchmark {
+
+	private StartupBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		File jar = new File(args.length > 0 ? args[0] : "target/dsclient-0.0.1-SNAPSHOT.jar");
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		File archive = new File(jar.getParentFile(), "dsclient.jsa");
+
+		run("test (before)", runs, List.of("-jar", jar.getPath(), "--spring.profiles.active=test"));
+		run("prod", runs, List.of("-jar", jar.getPath(), "--spring.profiles.active=prod"));
+		if (archive.exists()) {
+			run("prod + CDS", runs, List.of("-XX:SharedArchiveFile=" + archive.getPath(), "-Xlog:cds=off", "-jar",
+					jar.getPath(), "--spring.profiles.active=prod"));
+		} else {
+			System.out.printf("%s not found; run mvn -Dcds package to include the CDS variant%n", archive);
+		}
+	}
+
+	private static void run(String name, int runs, List<String> args) throws Exception {
+		long[] millis = new long[runs];
+		for (int i = 0; i < runs; i++) {
+			millis[i] = timeToFirstRequest(args);
+		}
+		Arrays.sort(millis);
+		System.out.printf("%-14s time to first request: min=%d ms median=%d ms max=%d ms (%d runs)%n", name,
+				millis[0], millis[runs / 2], millis[runs - 1], runs);
+	}
+
+	private static long timeToFirstRequest(List<String> args) throws Exception {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		command.addAll(args);
+		command.add("--server.port=" + port);
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/clients")).build();
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		try {
+			while (process.isAlive()) {
+				try {
+					if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+					}
+				} catch (IOException e) {
+					// Ainda subindo
+				}
+				Thread.sleep(10);
+			}
+			throw new IllegalStateException("Application exited with status " + process.exitValue());
+		} finally {
+			process.destroy();
+			process.waitFor(30, TimeUnit.SECONDS);
+		}
+	}
+
+}
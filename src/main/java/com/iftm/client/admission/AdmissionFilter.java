@@ -0,0 +1,196 @@
+package com.iftm.client.admission;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iftm.client.resources.exceptions.StandardError;
+import com.iftm.client.util.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Controle de admissao dos endpoints /clients: token bucket por cliente
+ * (cabecalho configurado ou IP) e bulkheads separados para leitura e escrita,
+ * para que um consumidor ou um tipo de carga nao esgote os demais. Rejeicoes
+ * devolvem 429 com Retry-After. O cabecalho so vale vindo do gateway
+ * (trusted-proxies); de qualquer outro endereco qualquer um poderia trocar de
+ * bucket a cada requisicao.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+	private static final String PATH = "/clients";
+	// SSE fica aberto por minutos; limitado so pelo token bucket
+	private static final String CHANGES_PATH = "/clients/changes";
+
+	private final double permitsPerSecond;
+	private final int burst;
+	private final String clientHeader;
+	private final Set<String> trustedProxies;
+	private final Cache<String, TokenBucket> buckets;
+	private final Semaphore reads;
+	private final Semaphore writes;
+	private final ObjectMapper mapper;
+
+	private final Counter rateLimited;
+	private final Counter readRejected;
+	private final Counter writeRejected;
+
+	public AdmissionFilter(@Value("${client.ratelimit.permits-per-second}") double permitsPerSecond,
+			@Value("${client.ratelimit.burst}") int burst,
+			@Value("${client.ratelimit.client-header}") String clientHeader,
+			@Value("${client.ratelimit.trusted-proxies}") Set<String> trustedProxies,
+			@Value("${client.ratelimit.idle-expiry}") Duration idleExpiry,
+			@Value("${client.ratelimit.max-clients}") long maxClients,
+			@Value("${client.bulkhead.read-permits}") int readPermits,
+			@Value("${client.bulkhead.write-permits}") int writePermits,
+			ObjectMapper mapper, MeterRegistry registry) {
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+		this.clientHeader = clientHeader;
+		this.trustedProxies = trustedProxies;
+		// Limitado tambem por tamanho: uma rajada de IPs distintos nao esgota o heap
+		this.buckets = Caffeine.newBuilder().expireAfterAccess(idleExpiry).maximumSize(maxClients).build();
+		this.reads = new Semaphore(readPermits);
+		this.writes = new Semaphore(writePermits);
+		this.mapper = mapper;
+		this.rateLimited = Counter.builder("client.admission.rejected")
+				.description("Requests rejected by admission control")
+				.tag("reason", "rate-limit").tag("bulkhead", "none")
+				.register(registry);
+		this.readRejected = Counter.builder("client.admission.rejected")
+				.description("Requests rejected by admission control")
+				.tag("reason", "bulkhead").tag("bulkhead", "read")
+				.register(registry);
+		this.writeRejected = Counter.builder("client.admission.rejected")
+				.description("Requests rejected by admission control")
+				.tag("reason", "bulkhead").tag("bulkhead", "write")
+				.register(registry);
+		Gauge.builder("client.admission.bulkhead.available", reads, Semaphore::availablePermits)
+				.description("Free permits in the bulkhead")
+				.tag("bulkhead", "read")
+				.register(registry);
+		Gauge.builder("client.admission.bulkhead.available", writes, Semaphore::availablePermits)
+				.description("Free permits in the bulkhead")
+				.tag("bulkhead", "write")
+				.register(registry);
+		Gauge.builder("client.admission.ratelimit.clients", buckets, Cache::estimatedSize)
+				.description("Clients with an active token bucket")
+				.register(registry);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		return !path.equals(PATH) && !path.startsWith(PATH + "/");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.get(clientKey(request), key -> new TokenBucket(permitsPerSecond, burst, now));
+		long wait = bucket.tryAcquire(now);
+		if (wait > 0) {
+			rateLimited.increment();
+			reject(request, response, wait, "Rate limit exceeded");
+			return;
+		}
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		if (path.equals(CHANGES_PATH)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		boolean read = isRead(request.getMethod());
+		Semaphore bulkhead = read ? reads : writes;
+		if (!bulkhead.tryAcquire()) {
+			(read ? readRejected : writeRejected).increment();
+			reject(request, response, TimeUnit.SECONDS.toNanos(1), (read ? "Read" : "Write") + " capacity exhausted");
+			return;
+		}
+		AtomicBoolean released = new AtomicBoolean();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			if (request.isAsyncStarted()) {
+				// A resposta so termina quando o CompletableFuture completar
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						release(bulkhead, released);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+						release(bulkhead, released);
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			} else {
+				release(bulkhead, released);
+			}
+		}
+	}
+
+	private String clientKey(HttpServletRequest request) {
+		String address = request.getRemoteAddr();
+		String client = trustedProxies.contains(address) ? request.getHeader(clientHeader) : null;
+		return client == null || client.isEmpty() ? "ip:" + address : "id:" + client;
+	}
+
+	private static boolean isRead(String method) {
+		return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+	}
+
+	private static void release(Semaphore bulkhead, AtomicBoolean released) {
+		if (released.compareAndSet(false, true)) {
+			bulkhead.release();
+		}
+	}
+
+	private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos, String message)
+			throws IOException {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		err.setError("Too many requests");
+		err.setMessage(message);
+		err.setPath(request.getRequestURI());
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, (waitNanos + 999_999_999L) / 1_000_000_000L)));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		mapper.writeValue(response.getOutputStream(), err);
+	}
+
+}
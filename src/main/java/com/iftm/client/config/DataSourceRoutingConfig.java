@@ -0,0 +1,80 @@
+package com.iftm.client.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.iftm.client.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Roteamento leitura/escrita (client.datasource.routing.enabled): o primario vem
+ * de spring.datasource.*, as replicas de client.datasource.replica-urls. O
+ * DataSource usado pelo JPA e o roteador atras de um LazyConnectionDataSourceProxy;
+ * as migracoes do Flyway rodam direto no primario.
+ */
+@Configuration
+@ConditionalOnProperty(name = "client.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	@Bean
+	@FlywayDataSource
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	// Replicas somente leitura; o pool abre na primeira conexao, entao uma replica
+	// fora do ar nao impede o boot (o ReplicaLagMonitor a deixa fora do rodizio).
+	// Os pools das replicas nao sao beans; quem os fecha e o close do roteador,
+	// declarado aqui em vez de inferido (o DataSource do JPA e o proxy, nao ele)
+	@Bean(destroyMethod = "close")
+	public ReplicaRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+			@Value("${client.datasource.replica-urls}") List<String> urls,
+			@Value("${client.datasource.replica-username}") String username,
+			@Value("${client.datasource.replica-password}") String password,
+			@Value("${client.datasource.replica-pool-size}") int poolSize,
+			@Value("${client.datasource.max-replica-lag}") Duration maxLag,
+			MeterRegistry registry) {
+		List<DataSource> replicas = new ArrayList<>();
+		for (String url : urls) {
+			if (url.isBlank()) {
+				continue;
+			}
+			HikariDataSource replica = new HikariDataSource();
+			replica.setPoolName("replica-" + replicas.size());
+			replica.setJdbcUrl(url.trim());
+			replica.setUsername(username);
+			replica.setPassword(password);
+			replica.setMaximumPoolSize(poolSize);
+			replica.setReadOnly(true);
+			// Esperar mais que o atraso tolerado por uma conexao nao compensa: melhor falhar
+			replica.setConnectionTimeout(Math.max(250, maxLag.toMillis()));
+			replica.setMetricRegistry(registry);
+			replicas.add(replica);
+		}
+		return new ReplicaRoutingDataSource(primary, replicas, registry);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.iftm.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.iftm.client.datasource.ReadYourWrites;
+import com.iftm.client.metrics.StatementCounter;
+
+@Configuration
+public class ExecutionConfig {
+	
+	// Pool limitado que executa as chamadas ao ClientService no modo async. O
+	// tamanho acompanha o pool de conexoes do Hikari: cada thread usa no maximo uma
+	// conexao, entao threads extras so ficariam esperando conexao.
+	@Bean
+	public ThreadPoolTaskExecutor clientExecutor(@Value("${client.execution.pool-size}") int poolSize,
+			@Value("${client.execution.queue-capacity}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("client-");
+		executor.setTaskDecorator(task -> StatementCounter.wrap(ReadYourWrites.wrap(task)));
+		return executor;
+	}
+	
+	// Com clientExecutor no contexto a auto-configuracao do Boot deixa de criar o
+	// applicationTaskExecutor e o MVC async (o StreamingResponseBody do export)
+	// cairia no SimpleAsyncTaskExecutor, uma thread nova por requisicao. Declarado
+	// aqui com o mesmo nome, limitado por spring.task.execution.pool.*
+	@Lazy
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.iftm.client.config;
+
+import java.net.URI;
+import java.util.UUID;
+
+import javax.cache.Caching;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateCacheConfig {
+
+	// O CachingProvider compartilha um CacheManager por URI na JVM. Cada
+	// EntityManagerFactory recebe o seu, com as regioes de ehcache.xml, para que
+	// contextos com bancos diferentes (ex.: testes) nao vejam o cache um do outro;
+	// o Hibernate fecha o CacheManager junto com a SessionFactory
+	@Bean
+	public HibernatePropertiesCustomizer hibernateCacheManager() {
+		return properties -> {
+			EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+					.getCachingProvider(EhcacheCachingProvider.class.getName());
+			XmlConfiguration regions = new XmlConfiguration(getClass().getResource("/ehcache.xml"));
+			URI uri = URI.create("urn:dsclient:hibernate-cache:" + UUID.randomUUID());
+			properties.put(ConfigSettings.CACHE_MANAGER, provider.getCacheManager(uri, regions));
+		};
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.iftm.client.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.iftm.client.formats.ClientProtobufHttpMessageConverter;
+import com.iftm.client.formats.CompactFormats;
+
+@Configuration
+public class MessageConvertersConfig implements WebMvcConfigurer {
+	
+	private final CompactFormats formats;
+	
+	public MessageConvertersConfig(CompactFormats formats) {
+		this.formats = formats;
+	}
+	
+	// Formatos binarios so com Accept/Content-Type explicito: ficam depois do JSON,
+	// que continua sendo a resposta para Accept ausente ou */*. Os conversores
+	// CBOR/Smile padrao do Spring sao trocados pelos de CompactFormats.
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+				|| converter instanceof MappingJackson2SmileHttpMessageConverter);
+		converters.add(new MappingJackson2CborHttpMessageConverter(formats.getCbor()));
+		converters.add(new MappingJackson2SmileHttpMessageConverter(formats.getSmile()));
+		converters.add(new ClientProtobufHttpMessageConverter());
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.iftm.client.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/*
+ * Define onde os endpoints executam o trabalho bloqueante (JDBC):
+ * - servlet: na propria thread do Tomcat (uma thread por requisicao);
+ * - async: no clientExecutor, liberando a thread do Tomcat enquanto espera.
+ */
+@Component
+public class RequestExecutor {
+	
+	public enum Mode {
+		SERVLET, ASYNC
+	}
+	
+	private final Mode mode;
+	private final ThreadPoolTaskExecutor executor;
+	
+	public RequestExecutor(@Value("${client.execution.mode}") Mode mode,
+			@Qualifier("clientExecutor") ThreadPoolTaskExecutor executor) {
+		this.mode = mode;
+		this.executor = executor;
+	}
+	
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		if (mode == Mode.SERVLET) {
+			return CompletableFuture.completedFuture(task.get());
+		}
+		return CompletableFuture.supplyAsync(task, executor);
+	}
+	
+	public Mode getMode() {
+		return mode;
+	}
+
+}
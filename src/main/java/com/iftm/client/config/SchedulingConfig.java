@@ -0,0 +1,23 @@
+package com.iftm.client.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.iftm.client.datasource.ReplicaLagMonitor;
+import com.iftm.client.services.ClientChangeFeed;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+	
+	// Com spring.main.lazy-initialization o despachante do outbox (que se agenda
+	// na inicializacao) e o monitor de replicas so rodariam apos o primeiro uso;
+	// continuam sendo criados no boot
+	@Bean
+	public static LazyInitializationExcludeFilter scheduledBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(ClientChangeFeed.class, ReplicaLagMonitor.class);
+	}
+
+}
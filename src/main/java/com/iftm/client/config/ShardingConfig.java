@@ -0,0 +1,98 @@
+package com.iftm.client.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.MultiTenancyStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.iftm.client.metrics.StatementCounter;
+import com.iftm.client.sharding.ShardConnectionProvider;
+import com.iftm.client.sharding.ShardDataSources;
+import com.iftm.client.sharding.ShardExecutor;
+import com.iftm.client.sharding.ShardTenantResolver;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Particionamento horizontal (client.sharding.enabled): o shard 0 e o banco de
+ * spring.datasource.*, migrado pelo Flyway da aplicacao; os shards de
+ * client.sharding.shard-urls recebem as migracoes de
+ * client.sharding.migration-locations ao subir. O Hibernate ve cada shard como
+ * um tenant (multi-tenancy DATABASE), escolhido pelo ShardContext da thread.
+ * Nao se combina com o roteamento para replicas (client.datasource.routing.enabled).
+ */
+@Configuration
+@ConditionalOnProperty(name = "client.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+	
+	@Bean
+	public ShardDataSources shardDataSources(DataSource dataSource,
+			@Value("${client.sharding.shard-urls}") List<String> urls,
+			@Value("${client.sharding.username}") String username,
+			@Value("${client.sharding.password}") String password,
+			@Value("${client.sharding.pool-size}") int poolSize,
+			@Value("${client.sharding.migration-locations}") String[] locations,
+			@Value("${client.datasource.routing.enabled}") boolean routing,
+			MeterRegistry registry) {
+		if (routing) {
+			throw new IllegalStateException(
+					"client.sharding.enabled cannot be combined with client.datasource.routing.enabled");
+		}
+		List<DataSource> shards = new ArrayList<>();
+		shards.add(dataSource);
+		for (String url : urls) {
+			if (url.isBlank()) {
+				continue;
+			}
+			HikariDataSource shard = new HikariDataSource();
+			shard.setPoolName("shard-" + shards.size());
+			shard.setJdbcUrl(url.trim());
+			shard.setUsername(username);
+			shard.setPassword(password);
+			shard.setMaximumPoolSize(poolSize);
+			shard.setMetricRegistry(registry);
+			shards.add(shard);
+			Flyway.configure().dataSource(shard).locations(locations).load().migrate();
+		}
+		return new ShardDataSources(shards);
+	}
+	
+	// Segue o padrao de HibernateCacheConfig: configuracao do Hibernate por customizer
+	@Bean
+	public HibernatePropertiesCustomizer shardingHibernateProperties(ShardDataSources shards) {
+		return properties -> {
+			properties.put(AvailableSettings.MULTI_TENANT, MultiTenancyStrategy.DATABASE);
+			properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER,
+					new ShardConnectionProvider(shards.getShards()));
+			properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new ShardTenantResolver());
+		};
+	}
+	
+	// Consultas espalhadas pelos shards: uma tarefa por shard, cada uma com a sua
+	// conexao, entao o pool acompanha o total de conexoes dos shards. O
+	// applicationTaskExecutor declarado em ExecutionConfig continua sendo o do
+	// MVC async, com ou sem este pool no contexto
+	@Bean
+	@ShardExecutor
+	public ThreadPoolTaskExecutor shardExecutor(ShardDataSources shards,
+			@Value("${client.sharding.pool-size}") int poolSize) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize * shards.count());
+		executor.setMaxPoolSize(poolSize * shards.count());
+		executor.setThreadNamePrefix("shard-");
+		executor.setTaskDecorator(StatementCounter::wrap);
+		return executor;
+	}
+	
+}
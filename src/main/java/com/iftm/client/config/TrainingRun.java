@@ -0,0 +1,41 @@
+package com.iftm.client.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/*
+ * Execucao de treino do arquivo CDS (perfil Maven cds): depois de subir, faz
+ * algumas requisicoes para carregar as classes do caminho de uma requisicao e
+ * encerra a JVM, que grava o arquivo com as classes carregadas.
+ */
+@Component
+@ConditionalOnProperty("client.startup.training-run")
+public class TrainingRun {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(TrainingRun.class);
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void run(ApplicationReadyEvent event) throws Exception {
+		ApplicationContext context = event.getApplicationContext();
+		String port = context.getEnvironment().getProperty("local.server.port");
+		HttpClient client = HttpClient.newHttpClient();
+		for (String path : new String[] { "/clients", "/clients/1", "/clients/search?name=a" }) {
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+			int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			LOG.info("Training request {} -> {}", path, status);
+		}
+		System.exit(SpringApplication.exit(context));
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.iftm.client.datasource;
+
+/*
+ * Marca a thread atual como pertencente a uma sessao que acabou de escrever:
+ * enquanto ativa, leituras vao ao primario e nao usam caches que podem ter sido
+ * preenchidos por uma replica atrasada. Definida por ReadYourWritesFilter.
+ */
+public final class ReadYourWrites {
+	
+	private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+	
+	private ReadYourWrites() {
+	}
+	
+	public static void begin() {
+		ACTIVE.set(Boolean.TRUE);
+	}
+	
+	public static void end() {
+		ACTIVE.remove();
+	}
+	
+	public static boolean isActive() {
+		return ACTIVE.get() != null;
+	}
+	
+	// Propaga a marca da requisicao para tarefas executadas em outro pool
+	public static Runnable wrap(Runnable task) {
+		if (!isActive()) {
+			return task;
+		}
+		return () -> {
+			begin();
+			try {
+				task.run();
+			} finally {
+				end();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.iftm.client.datasource;
+
+import java.io.IOException;
+import java.util.Set;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/*
+ * Read-your-writes por cliente (cabecalho client.ratelimit.client-header ou IP):
+ * requisicoes de escrita e as leituras do mesmo cliente durante o maior atraso
+ * possivel de uma replica rodam com ReadYourWrites ativo, isto e, no primario.
+ */
+@Component
+@ConditionalOnProperty(name = "client.datasource.routing.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	private static final String PATH = "/clients";
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+	private final String clientHeader;
+	private final Cache<String, Boolean> recentWriters;
+
+	public ReadYourWritesFilter(@Value("${client.ratelimit.client-header}") String clientHeader,
+			ReplicaLagMonitor monitor) {
+		this.clientHeader = clientHeader;
+		this.recentWriters = Caffeine.newBuilder().expireAfterWrite(monitor.stalenessBound()).build();
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith(PATH);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String client = clientKey(request);
+		boolean write = !SAFE_METHODS.contains(request.getMethod());
+		if (write || recentWriters.getIfPresent(client) != null) {
+			ReadYourWrites.begin();
+		}
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ReadYourWrites.end();
+			if (write && request.isAsyncStarted()) {
+				// A janela conta a partir do fim da escrita, que roda no clientExecutor
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						recentWriters.put(client, Boolean.TRUE);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+						recentWriters.put(client, Boolean.TRUE);
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			} else if (write) {
+				recentWriters.put(client, Boolean.TRUE);
+			}
+		}
+	}
+
+	private String clientKey(HttpServletRequest request) {
+		String client = request.getHeader(clientHeader);
+		return client == null || client.isEmpty() ? "ip:" + request.getRemoteAddr() : "id:" + client;
+	}
+
+}
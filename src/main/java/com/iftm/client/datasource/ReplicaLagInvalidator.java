@@ -0,0 +1,59 @@
+package com.iftm.client.datasource;
+
+import java.time.Instant;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientCache;
+import com.iftm.client.services.ClientCollectionVersion;
+import com.iftm.client.services.events.ClientChangedEvent;
+
+/*
+ * Os caches sao invalidados no commit, mas uma leitura logo depois pode ir a uma
+ * replica que ainda nao recebeu a escrita e guardar o valor antigo. Passado o
+ * maior atraso possivel de uma replica, a mesma invalidacao e repetida: o que for
+ * lido a partir dai ja reflete a escrita.
+ */
+@Component
+@ConditionalOnProperty(name = "client.datasource.routing.enabled", havingValue = "true")
+public class ReplicaLagInvalidator {
+
+	private final ReplicaLagMonitor monitor;
+	private final TaskScheduler scheduler;
+	private final ClientCache cache;
+	private final ClientCollectionVersion collectionVersion;
+	private final EntityManagerFactory entityManagerFactory;
+
+	public ReplicaLagInvalidator(ReplicaLagMonitor monitor, TaskScheduler scheduler, ClientCache cache,
+			ClientCollectionVersion collectionVersion, EntityManagerFactory entityManagerFactory) {
+		this.monitor = monitor;
+		this.scheduler = scheduler;
+		this.cache = cache;
+		this.collectionVersion = collectionVersion;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		scheduler.schedule(() -> invalidate(event), Instant.now().plus(monitor.stalenessBound()));
+	}
+
+	private void invalidate(ClientChangedEvent event) {
+		org.hibernate.Cache regions = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+		regions.evictEntityData(Client.class, event.getId());
+		regions.evictQueryRegion(ClientRepository.QUERY_CACHE_REGION);
+		regions.evictDefaultQueryRegion();
+		cache.evict(event.getId());
+		// Nova versao da colecao: listagens servidas pela replica com o ETag da escrita deixam de valer
+		collectionVersion.onClientChanged(event);
+	}
+
+}
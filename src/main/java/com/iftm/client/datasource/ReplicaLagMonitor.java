@@ -0,0 +1,107 @@
+package com.iftm.client.datasource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/*
+ * Mede o atraso de cada replica por um batimento: grava o relogio do primario em
+ * tb_replication_heartbeat e le o valor replicado em cada replica. Replicas com
+ * atraso acima de client.datasource.max-replica-lag, ou que nao respondem, saem
+ * do rodizio ate a proxima verificacao. Ate a primeira verificacao as leituras
+ * ficam no primario.
+ */
+@Component
+@ConditionalOnProperty(name = "client.datasource.routing.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+	private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+	private final ReplicaRoutingDataSource routing;
+	private final JdbcTemplate primary;
+	private final Map<String, JdbcTemplate> replicas = new ConcurrentHashMap<>();
+	private final Map<String, Double> lagMillis = new ConcurrentHashMap<>();
+	private final Duration maxLag;
+	private final long interval;
+
+	public ReplicaLagMonitor(ReplicaRoutingDataSource routing, @Qualifier("primaryDataSource") DataSource primary,
+			@Value("${client.datasource.max-replica-lag}") Duration maxLag,
+			@Value("${client.datasource.lag-check-interval-ms}") long interval, MeterRegistry registry) {
+		this.routing = routing;
+		this.primary = new JdbcTemplate(primary);
+		this.maxLag = maxLag;
+		this.interval = interval;
+		int timeout = (int) Math.max(1, (maxLag.toMillis() + 999) / 1000);
+		for (Map.Entry<String, DataSource> replica : routing.getReplicas().entrySet()) {
+			JdbcTemplate jdbc = new JdbcTemplate(replica.getValue());
+			jdbc.setQueryTimeout(timeout);
+			replicas.put(replica.getKey(), jdbc);
+			lagMillis.put(replica.getKey(), Double.NaN);
+			TimeGauge.builder("client.datasource.replica.lag", lagMillis, TimeUnit.MILLISECONDS,
+					x -> x.get(replica.getKey()))
+					.description("Replication lag measured by the heartbeat (NaN while unreachable)")
+					.tag("replica", replica.getKey())
+					.register(registry);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${client.datasource.lag-check-interval-ms}")
+	public synchronized void check() {
+		Timestamp now;
+		try {
+			now = primary.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+			primary.update("UPDATE tb_replication_heartbeat SET beat_at = ? WHERE id = 1", now);
+		} catch (DataAccessException e) {
+			// Sem primario nao ha como medir; as replicas ficam como estavam
+			log.warn("Could not write replication heartbeat: {}", e.getMessage());
+			return;
+		}
+		List<String> healthy = new ArrayList<>();
+		for (Map.Entry<String, JdbcTemplate> replica : replicas.entrySet()) {
+			String key = replica.getKey();
+			try {
+				Timestamp beat = replica.getValue().queryForObject(
+						"SELECT beat_at FROM tb_replication_heartbeat WHERE id = 1", Timestamp.class);
+				long lag = Math.max(0, now.getTime() - beat.getTime());
+				lagMillis.put(key, (double) lag);
+				if (lag <= maxLag.toMillis()) {
+					healthy.add(key);
+				}
+			} catch (DataAccessException e) {
+				lagMillis.put(key, Double.NaN);
+				log.debug("Replica {} unreachable: {}", key, e.getMessage());
+			}
+		}
+		healthy.sort(null);
+		if (!healthy.equals(routing.getHealthy())) {
+			log.info("Healthy replicas: {}", healthy);
+		}
+		routing.setHealthy(healthy);
+	}
+
+	// Maior atraso possivel de uma leitura em replica: o limite de atraso mais o
+	// intervalo entre verificacoes (uma replica pode parar logo apos ser medida)
+	public Duration stalenessBound() {
+		return maxLag.plusMillis(interval);
+	}
+
+}
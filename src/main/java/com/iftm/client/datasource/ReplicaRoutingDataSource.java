@@ -0,0 +1,94 @@
+package com.iftm.client.datasource;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Transacoes somente leitura vao para as replicas saudaveis, em rodizio; escritas,
+ * leituras fora de transacao e sessoes de ReadYourWrites ficam no primario. Sem
+ * replica saudavel (ver ReplicaLagMonitor) a leitura tambem vai ao primario.
+ * Precisa estar atras de um LazyConnectionDataSourceProxy: o JpaTransactionManager
+ * pede a conexao antes de marcar a transacao como somente leitura.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+	public static final String PRIMARY = "primary";
+
+	private final Map<String, DataSource> replicas;
+	private final Map<String, Counter> routed = new HashMap<>();
+	private final Counter fallbacks;
+	private final AtomicInteger next = new AtomicInteger();
+	private volatile List<String> healthy = List.of();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, MeterRegistry registry) {
+		this.replicas = new LinkedHashMap<>();
+		for (int i = 0; i < replicas.size(); i++) {
+			this.replicas.put("replica-" + i, replicas.get(i));
+		}
+		Map<Object, Object> targets = new HashMap<>(this.replicas);
+		targets.put(PRIMARY, primary);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		for (Object key : targets.keySet()) {
+			routed.put((String) key, Counter.builder("client.datasource.connections")
+					.description("Connections handed out by the read/write routing data source")
+					.tag("target", (String) key)
+					.register(registry));
+		}
+		this.fallbacks = Counter.builder("client.datasource.replica.fallbacks")
+				.description("Read-only transactions sent to the primary because no replica was healthy")
+				.register(registry);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String key = route();
+		routed.get(key).increment();
+		return key;
+	}
+
+	private String route() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isActive()) {
+			return PRIMARY;
+		}
+		List<String> candidates = healthy;
+		if (candidates.isEmpty()) {
+			fallbacks.increment();
+			return PRIMARY;
+		}
+		return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+	}
+
+	public Map<String, DataSource> getReplicas() {
+		return replicas;
+	}
+
+	public List<String> getHealthy() {
+		return healthy;
+	}
+
+	public void setHealthy(List<String> healthy) {
+		this.healthy = List.copyOf(healthy);
+	}
+
+	@Override
+	public void close() throws Exception {
+		for (DataSource replica : replicas.values()) {
+			if (replica instanceof AutoCloseable) {
+				((AutoCloseable) replica).close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class AgeBucketDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private int fromAge;
+	private int toAge;
+	private long count;
+	
+	public AgeBucketDTO() {
+	}
+
+	public AgeBucketDTO(int fromAge, int toAge, long count) {
+		this.fromAge = fromAge;
+		this.toAge = toAge;
+		this.count = count;
+	}
+
+	public int getFromAge() {
+		return fromAge;
+	}
+
+	public void setFromAge(int fromAge) {
+		this.fromAge = fromAge;
+	}
+
+	// Inclusivo
+	public int getToAge() {
+		return toAge;
+	}
+
+	public void setToAge(int toAge) {
+		this.toAge = toAge;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class BatchResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	public enum Status {
+		CREATED, UPDATED, FAILED
+	}
+	
+	private String cpf;
+	private Long id;
+	private Status status;
+	private String message;
+	
+	public BatchResultDTO() {
+	}
+
+	public BatchResultDTO(String cpf, Long id, Status status, String message) {
+		this.cpf = cpf;
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+
+	public String getCpf() {
+		return cpf;
+	}
+
+	public void setCpf(String cpf) {
+		this.cpf = cpf;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+public class BirthdayDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private ClientDTO client;
+	private LocalDate birthday;
+	private int turning;
+	
+	public BirthdayDTO() {
+	}
+
+	public BirthdayDTO(ClientDTO client, LocalDate birthday, int turning) {
+		this.client = client;
+		this.birthday = birthday;
+		this.turning = turning;
+	}
+
+	public ClientDTO getClient() {
+		return client;
+	}
+
+	public void setClient(ClientDTO client) {
+		this.client = client;
+	}
+
+	public LocalDate getBirthday() {
+		return birthday;
+	}
+
+	public void setBirthday(LocalDate birthday) {
+		this.birthday = birthday;
+	}
+
+	public int getTurning() {
+		return turning;
+	}
+
+	public void setTurning(int turning) {
+		this.turning = turning;
+	}
+
+}
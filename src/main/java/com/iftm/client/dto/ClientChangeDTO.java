@@ -0,0 +1,81 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.iftm.client.services.events.ClientChangedEvent;
+
+public class ClientChangeDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private Long position;
+	private Long clientId;
+	private ClientChangedEvent.Type type;
+	private boolean partial;
+	private ClientDTO client;
+	private Instant createdAt;
+	
+	public ClientChangeDTO() {
+	}
+
+	public ClientChangeDTO(Long position, Long clientId, ClientChangedEvent.Type type, boolean partial,
+			ClientDTO client, Instant createdAt) {
+		this.position = position;
+		this.clientId = clientId;
+		this.type = type;
+		this.partial = partial;
+		this.client = client;
+		this.createdAt = createdAt;
+	}
+
+	// Offset da alteracao; consumidores retomam com since=position
+	public Long getPosition() {
+		return position;
+	}
+
+	public void setPosition(Long position) {
+		this.position = position;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public void setClientId(Long clientId) {
+		this.clientId = clientId;
+	}
+
+	public ClientChangedEvent.Type getType() {
+		return type;
+	}
+
+	public void setType(ClientChangedEvent.Type type) {
+		this.type = type;
+	}
+
+	// Em alteracoes parciais, client traz apenas os campos alterados
+	public boolean isPartial() {
+		return partial;
+	}
+
+	public void setPartial(boolean partial) {
+		this.partial = partial;
+	}
+
+	public ClientDTO getClient() {
+		return client;
+	}
+
+	public void setClient(ClientDTO client) {
+		this.client = client;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+}
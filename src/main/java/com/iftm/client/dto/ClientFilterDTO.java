@@ -0,0 +1,76 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+public class ClientFilterDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private String name;
+	private Double incomeMin;
+	private Double incomeMax;
+	private Instant birthDateStart;
+	private Instant birthDateEnd;
+	private Integer childrenMin;
+	private Integer childrenMax;
+	
+	public ClientFilterDTO() {
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Double getIncomeMin() {
+		return incomeMin;
+	}
+
+	public void setIncomeMin(Double incomeMin) {
+		this.incomeMin = incomeMin;
+	}
+
+	public Double getIncomeMax() {
+		return incomeMax;
+	}
+
+	public void setIncomeMax(Double incomeMax) {
+		this.incomeMax = incomeMax;
+	}
+
+	public Instant getBirthDateStart() {
+		return birthDateStart;
+	}
+
+	public void setBirthDateStart(Instant birthDateStart) {
+		this.birthDateStart = birthDateStart;
+	}
+
+	public Instant getBirthDateEnd() {
+		return birthDateEnd;
+	}
+
+	public void setBirthDateEnd(Instant birthDateEnd) {
+		this.birthDateEnd = birthDateEnd;
+	}
+
+	public Integer getChildrenMin() {
+		return childrenMin;
+	}
+
+	public void setChildrenMin(Integer childrenMin) {
+		this.childrenMin = childrenMin;
+	}
+
+	public Integer getChildrenMax() {
+		return childrenMax;
+	}
+
+	public void setChildrenMax(Integer childrenMax) {
+		this.childrenMax = childrenMax;
+	}
+
+}
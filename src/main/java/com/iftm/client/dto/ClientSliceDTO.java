@@ -0,0 +1,46 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class ClientSliceDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private List<ClientDTO> content;
+	private String nextCursor;
+	private boolean hasNext;
+	
+	public ClientSliceDTO() {
+	}
+
+	public ClientSliceDTO(List<ClientDTO> content, String nextCursor, boolean hasNext) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.hasNext = hasNext;
+	}
+
+	public List<ClientDTO> getContent() {
+		return content;
+	}
+
+	public void setContent(List<ClientDTO> content) {
+		this.content = content;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+public class DeleteRequestDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private List<Long> ids;
+	private Instant birthDateStart;
+	private Instant birthDateEnd;
+	
+	public DeleteRequestDTO() {
+	}
+
+	public DeleteRequestDTO(List<Long> ids, Instant birthDateStart, Instant birthDateEnd) {
+		this.ids = ids;
+		this.birthDateStart = birthDateStart;
+		this.birthDateEnd = birthDateEnd;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Long> ids) {
+		this.ids = ids;
+	}
+
+	public Instant getBirthDateStart() {
+		return birthDateStart;
+	}
+
+	public void setBirthDateStart(Instant birthDateStart) {
+		this.birthDateStart = birthDateStart;
+	}
+
+	public Instant getBirthDateEnd() {
+		return birthDateEnd;
+	}
+
+	public void setBirthDateEnd(Instant birthDateEnd) {
+		this.birthDateEnd = birthDateEnd;
+	}
+
+}
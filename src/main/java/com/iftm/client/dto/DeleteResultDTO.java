@@ -0,0 +1,25 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class DeleteResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private long deleted;
+	
+	public DeleteResultDTO() {
+	}
+
+	public DeleteResultDTO(long deleted) {
+		this.deleted = deleted;
+	}
+
+	public long getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(long deleted) {
+		this.deleted = deleted;
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class IncomeStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private long count;
+	private Double sum;
+	private Double min;
+	private Double max;
+	private Double mean;
+	private Map<String, Double> percentiles = new LinkedHashMap<>();
+	private List<Bucket> histogram = new ArrayList<>();
+	
+	public IncomeStatsDTO() {
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	public Double getSum() {
+		return sum;
+	}
+
+	public void setSum(Double sum) {
+		this.sum = sum;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public void setMin(Double min) {
+		this.min = min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public void setMax(Double max) {
+		this.max = max;
+	}
+
+	public Double getMean() {
+		return mean;
+	}
+
+	public void setMean(Double mean) {
+		this.mean = mean;
+	}
+
+	public Map<String, Double> getPercentiles() {
+		return percentiles;
+	}
+
+	public List<Bucket> getHistogram() {
+		return histogram;
+	}
+
+	public static class Bucket implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private double from;
+		private double to;
+		private long count;
+		
+		public Bucket() {
+		}
+
+		public Bucket(double from, double to, long count) {
+			this.from = from;
+			this.to = to;
+			this.count = count;
+		}
+
+		public double getFrom() {
+			return from;
+		}
+
+		public void setFrom(double from) {
+			this.from = from;
+		}
+
+		public double getTo() {
+			return to;
+		}
+
+		public void setTo(double to) {
+			this.to = to;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public void setCount(long count) {
+			this.count = count;
+		}
+	}
+
+}
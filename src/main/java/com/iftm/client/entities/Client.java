@@ -2,36 +2,72 @@ package com.iftm.client.entities;
 
 import java.io.Serializable;
 import java.time.Instant;
-
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.persistence.Cacheable;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.iftm.client.util.BirthDates;
+import com.iftm.client.util.NameNormalizer;
 
 @Entity
 @Table(name = "tb_client")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Client implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+	@GenericGenerator(name = "client_seq", strategy = "com.iftm.client.sharding.ShardAwareIdGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "tb_client_seq"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo") })
 	private Long id;
 	private String name;
+	@Column(name = "name_normalized")
+	private String nameNormalized;
+	// Indice da busca por trecho do nome; as linhas saem junto com o cliente (ON DELETE CASCADE)
+	@ElementCollection
+	@CollectionTable(name = "tb_client_name_trigram", joinColumns = @JoinColumn(name = "client_id"))
+	@Column(name = "trigram")
+	private Set<String> nameTrigrams = new HashSet<>();
 	private String cpf;
 	private Double income;
 	private Instant birthDate;
+	@Column(name = "birth_month_day")
+	private Integer birthMonthDay;
+	@Column(name = "birth_year")
+	private Integer birthYear;
 	private Integer children;
+	@Version
+	private Long version;
 	
 	public Client() {
 	}
 
 	public Client(Long id, String name, String cpf, Double income, Instant birthDate, Integer children) {
 		this.id = id;
-		this.name = name;
+		setName(name);
 		this.cpf = cpf;
 		this.income = income;
-		this.birthDate = birthDate;
+		setBirthDate(birthDate);
 		this.children = children;
 	}
 
@@ -49,6 +85,17 @@ public class Client implements Serializable {
 
 	public void setName(String name) {
 		this.name = name;
+		String normalized = NameNormalizer.normalize(name);
+		// So carrega e regrava os trigramas quando o nome normalizado muda
+		if (!Objects.equals(normalized, nameNormalized)) {
+			nameTrigrams.clear();
+			nameTrigrams.addAll(NameNormalizer.trigrams(normalized));
+		}
+		this.nameNormalized = normalized;
+	}
+
+	public String getNameNormalized() {
+		return nameNormalized;
 	}
 
 	public String getCpf() {
@@ -73,6 +120,16 @@ public class Client implements Serializable {
 
 	public void setBirthDate(Instant birthDate) {
 		this.birthDate = birthDate;
+		this.birthMonthDay = BirthDates.monthDay(birthDate);
+		this.birthYear = BirthDates.year(birthDate);
+	}
+
+	public Integer getBirthMonthDay() {
+		return birthMonthDay;
+	}
+
+	public Integer getBirthYear() {
+		return birthYear;
 	}
 
 	public Integer getChildren() {
@@ -83,6 +140,14 @@ public class Client implements Serializable {
 		this.children = children;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
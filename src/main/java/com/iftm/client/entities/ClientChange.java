@@ -0,0 +1,111 @@
+package com.iftm.client.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.iftm.client.services.events.ClientChangedEvent;
+
+@Entity
+@Table(name = "tb_client_change")
+public class ClientChange implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_change_seq")
+	@GenericGenerator(name = "client_change_seq", strategy = "com.iftm.client.sharding.ShardAwareIdGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "tb_client_change_seq"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo") })
+	private Long id;
+	private Long position;
+	@Column(name = "client_id")
+	private Long clientId;
+	@Enumerated(EnumType.STRING)
+	private ClientChangedEvent.Type type;
+	private boolean partial;
+	private String payload;
+	@Column(name = "created_at")
+	private Instant createdAt;
+	
+	public ClientChange() {
+	}
+
+	public ClientChange(Long clientId, ClientChangedEvent.Type type, boolean partial, String payload,
+			Instant createdAt) {
+		this.clientId = clientId;
+		this.type = type;
+		this.partial = partial;
+		this.payload = payload;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getPosition() {
+		return position;
+	}
+
+	public void setPosition(Long position) {
+		this.position = position;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public ClientChangedEvent.Type getType() {
+		return type;
+	}
+
+	public boolean isPartial() {
+		return partial;
+	}
+
+	// ClientDTO em JSON; nulo em exclusoes
+	public String getPayload() {
+		return payload;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ClientChange other = (ClientChange) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		} else if (!id.equals(other.id))
+			return false;
+		return true;
+	}
+}
@@ -0,0 +1,214 @@
+package com.iftm.client.formats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientSliceDTO;
+
+/*
+ * Codificacao Protobuf das mensagens de src/main/proto/client.proto, escrita a
+ * mao sobre CodedOutputStream/CodedInputStream para nao depender de protoc no
+ * build. Campos null nao sao escritos; ausentes sao lidos como null.
+ */
+public final class ClientProtobuf {
+
+	// Client
+	private static final int ID = 1;
+	private static final int NAME = 2;
+	private static final int CPF = 3;
+	private static final int INCOME_CENTS = 4;
+	private static final int BIRTH_DATE_MILLIS = 5;
+	private static final int CHILDREN = 6;
+	private static final int VERSION = 7;
+
+	// ClientPage, ClientSlice e ClientList
+	private static final int CONTENT = 1;
+	private static final int PAGE = 2;
+	private static final int SIZE = 3;
+	private static final int TOTAL_ELEMENTS = 4;
+	private static final int TOTAL_PAGES = 5;
+	private static final int NEXT_CURSOR = 2;
+	private static final int HAS_NEXT = 3;
+
+	private ClientProtobuf() {
+	}
+
+	public static void writeClient(CodedOutputStream out, ClientDTO dto) throws IOException {
+		if (dto.getId() != null) {
+			out.writeInt64(ID, dto.getId());
+		}
+		if (dto.getName() != null) {
+			out.writeString(NAME, dto.getName());
+		}
+		if (dto.getCpf() != null) {
+			out.writeString(CPF, dto.getCpf());
+		}
+		if (dto.getIncome() != null) {
+			out.writeSInt64(INCOME_CENTS, IncomeCents.toCents(dto.getIncome()));
+		}
+		if (dto.getBirthDate() != null) {
+			out.writeSInt64(BIRTH_DATE_MILLIS, dto.getBirthDate().toEpochMilli());
+		}
+		if (dto.getChildren() != null) {
+			out.writeInt32(CHILDREN, dto.getChildren());
+		}
+		if (dto.getVersion() != null) {
+			out.writeInt64(VERSION, dto.getVersion());
+		}
+	}
+
+	// Client embutido como campo repetido; aceita ClientDTO ou a projecao por campos
+	public static void writeClient(CodedOutputStream out, int field, Object value) throws IOException {
+		ClientDTO dto = toClient(value);
+		out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+		out.writeUInt32NoTag(size(dto));
+		writeClient(out, dto);
+	}
+
+	public static void writeClients(CodedOutputStream out, Iterator<?> clients) throws IOException {
+		while (clients.hasNext()) {
+			writeClient(out, CONTENT, clients.next());
+		}
+	}
+
+	public static void writePage(CodedOutputStream out, Page<?> page) throws IOException {
+		writeClients(out, page.getContent().iterator());
+		out.writeInt32(PAGE, page.getNumber());
+		out.writeInt32(SIZE, page.getSize());
+		out.writeInt64(TOTAL_ELEMENTS, page.getTotalElements());
+		out.writeInt32(TOTAL_PAGES, page.getTotalPages());
+	}
+
+	public static void writeSlice(CodedOutputStream out, ClientSliceDTO slice) throws IOException {
+		writeClients(out, slice.getContent().iterator());
+		if (slice.getNextCursor() != null) {
+			out.writeString(NEXT_CURSOR, slice.getNextCursor());
+		}
+		out.writeBool(HAS_NEXT, slice.isHasNext());
+	}
+
+	// Le uma mensagem Client ate o fim da entrada (ou do limite corrente)
+	public static ClientDTO readClient(CodedInputStream in) throws IOException {
+		ClientDTO dto = new ClientDTO();
+		int tag;
+		while ((tag = in.readTag()) != 0) {
+			switch (WireFormat.getTagFieldNumber(tag)) {
+			case ID:
+				dto.setId(in.readInt64());
+				break;
+			case NAME:
+				dto.setName(in.readString());
+				break;
+			case CPF:
+				dto.setCpf(in.readString());
+				break;
+			case INCOME_CENTS:
+				dto.setIncome(IncomeCents.fromCents(in.readSInt64()));
+				break;
+			case BIRTH_DATE_MILLIS:
+				dto.setBirthDate(Instant.ofEpochMilli(in.readSInt64()));
+				break;
+			case CHILDREN:
+				dto.setChildren(in.readInt32());
+				break;
+			case VERSION:
+				dto.setVersion(in.readInt64());
+				break;
+			default:
+				in.skipField(tag);
+			}
+		}
+		return dto;
+	}
+
+	// Le um ClientList um Client por vez, sem materializar a lista
+	public static Reader reader(InputStream input) {
+		return new Reader(CodedInputStream.newInstance(input));
+	}
+
+	public static class Reader {
+
+		private final CodedInputStream in;
+
+		private Reader(CodedInputStream in) {
+			this.in = in;
+		}
+
+		// Proximo Client, ou null no fim da entrada
+		public ClientDTO next() throws IOException {
+			int tag;
+			while ((tag = in.readTag()) != 0) {
+				if (WireFormat.getTagFieldNumber(tag) != CONTENT) {
+					in.skipField(tag);
+					continue;
+				}
+				if (WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+					throw new InvalidProtocolBufferException("Invalid wire type for ClientList.clients");
+				}
+				int limit = in.pushLimit(in.readRawVarint32());
+				ClientDTO dto = readClient(in);
+				in.popLimit(limit);
+				in.resetSizeCounter();
+				return dto;
+			}
+			return null;
+		}
+
+	}
+
+	private static int size(ClientDTO dto) {
+		int size = 0;
+		if (dto.getId() != null) {
+			size += CodedOutputStream.computeInt64Size(ID, dto.getId());
+		}
+		if (dto.getName() != null) {
+			size += CodedOutputStream.computeStringSize(NAME, dto.getName());
+		}
+		if (dto.getCpf() != null) {
+			size += CodedOutputStream.computeStringSize(CPF, dto.getCpf());
+		}
+		if (dto.getIncome() != null) {
+			size += CodedOutputStream.computeSInt64Size(INCOME_CENTS, IncomeCents.toCents(dto.getIncome()));
+		}
+		if (dto.getBirthDate() != null) {
+			size += CodedOutputStream.computeSInt64Size(BIRTH_DATE_MILLIS, dto.getBirthDate().toEpochMilli());
+		}
+		if (dto.getChildren() != null) {
+			size += CodedOutputStream.computeInt32Size(CHILDREN, dto.getChildren());
+		}
+		if (dto.getVersion() != null) {
+			size += CodedOutputStream.computeInt64Size(VERSION, dto.getVersion());
+		}
+		return size;
+	}
+
+	private static ClientDTO toClient(Object value) {
+		if (value instanceof ClientDTO) {
+			return (ClientDTO) value;
+		}
+		if (!(value instanceof Map)) {
+			throw new IllegalArgumentException("Cannot encode " + value.getClass().getName() + " as Client");
+		}
+		Map<?, ?> fields = (Map<?, ?>) value;
+		ClientDTO dto = new ClientDTO();
+		dto.setId((Long) fields.get("id"));
+		dto.setName((String) fields.get("name"));
+		dto.setCpf((String) fields.get("cpf"));
+		dto.setIncome((Double) fields.get("income"));
+		dto.setBirthDate((Instant) fields.get("birthDate"));
+		dto.setChildren((Integer) fields.get("children"));
+		dto.setVersion((Long) fields.get("version"));
+		return dto;
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.iftm.client.formats;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientSliceDTO;
+
+/*
+ * application/x-protobuf para ClientDTO, paginas, slices e listas de clientes.
+ * Outros corpos (erros, estatisticas) nao tem mensagem no contrato e ficam com
+ * os demais conversores.
+ */
+public class ClientProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public ClientProtobufHttpMessageConverter() {
+		super(CompactFormats.PROTOBUF);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return ClientDTO.class == clazz || ClientSliceDTO.class == clazz || Page.class.isAssignableFrom(clazz)
+				|| List.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return type == ClientDTO.class && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		if (!canWrite(mediaType)) {
+			return false;
+		}
+		ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+		Class<?> raw = resolved.resolve(clazz);
+		if (raw == null || !supports(raw)) {
+			return false;
+		}
+		if (ClientDTO.class == raw || ClientSliceDTO.class == raw) {
+			return true;
+		}
+		// Page<?> (projecao por campos) e aceito; conteudo de outro tipo nao
+		Class<?> element = resolved.as(raw).getGeneric(0).resolve();
+		return element == null || element == Object.class || ClientDTO.class == element
+				|| Map.class.isAssignableFrom(element);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+		try {
+			return ClientProtobuf.readClient(CodedInputStream.newInstance(inputMessage.getBody()));
+		} catch (InvalidProtocolBufferException e) {
+			throw new HttpMessageNotReadableException("Malformed protobuf Client: " + e.getMessage(), e,
+					inputMessage);
+		}
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+		return readInternal(ClientDTO.class, inputMessage);
+	}
+
+	@Override
+	protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+		CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody());
+		try {
+			if (value instanceof ClientDTO) {
+				ClientProtobuf.writeClient(out, (ClientDTO) value);
+			} else if (value instanceof Page) {
+				ClientProtobuf.writePage(out, (Page<?>) value);
+			} else if (value instanceof ClientSliceDTO) {
+				ClientProtobuf.writeSlice(out, (ClientSliceDTO) value);
+			} else {
+				ClientProtobuf.writeClients(out, ((List<?>) value).iterator());
+			}
+		} catch (IllegalArgumentException | ClassCastException e) {
+			throw new HttpMessageNotWritableException("Cannot encode response as protobuf", e);
+		}
+		out.flush();
+	}
+
+}
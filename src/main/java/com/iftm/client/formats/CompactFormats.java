@@ -0,0 +1,107 @@
+package com.iftm.client.formats;
+
+import java.io.IOException;
+
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Mappers dos formatos binarios (CBOR e Smile) para trafego entre servicos.
+ * Partem da configuracao Jackson da aplicacao, mas com Instant em milissegundos
+ * desde a epoca, renda em centavos (incomeCents) e Page reduzido a conteudo e
+ * totais. O JSON continua igual.
+ */
+@Component
+public class CompactFormats {
+
+	public static final MediaType CBOR = MediaType.valueOf("application/cbor");
+	public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+	public static final MediaType PROTOBUF = MediaType.valueOf("application/x-protobuf");
+
+	private final ObjectMapper cbor;
+	private final ObjectMapper smile;
+
+	public CompactFormats(Jackson2ObjectMapperBuilder builder) {
+		this.cbor = configure(builder.factory(new CBORFactory()).build());
+		this.smile = configure(builder.factory(new SmileFactory()).build());
+	}
+
+	public ObjectMapper getCbor() {
+		return cbor;
+	}
+
+	public ObjectMapper getSmile() {
+		return smile;
+	}
+
+	// Mapper Jackson do tipo de midia, ou null se nao for CBOR nem Smile
+	public ObjectMapper mapperFor(MediaType mediaType) {
+		if (CBOR.isCompatibleWith(mediaType)) {
+			return cbor;
+		}
+		if (SMILE.isCompatibleWith(mediaType)) {
+			return smile;
+		}
+		return null;
+	}
+
+	private static ObjectMapper configure(ObjectMapper mapper) {
+		SimpleModule module = new SimpleModule("CompactFormats");
+		module.addSerializer(new PageEnvelopeSerializer());
+		module.setMixInAnnotation(ClientDTO.class, ClientDTOMixin.class);
+		return mapper.registerModule(module)
+				.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+				.disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS);
+	}
+
+	abstract static class ClientDTOMixin {
+
+		@JsonProperty("incomeCents")
+		@JsonSerialize(using = IncomeCents.Serializer.class)
+		abstract Double getIncome();
+
+		@JsonProperty("incomeCents")
+		@JsonDeserialize(using = IncomeCents.Deserializer.class)
+		abstract void setIncome(Double income);
+
+	}
+
+	// Sem pageable, sort e demais campos derivados do Page do Spring
+	static class PageEnvelopeSerializer extends StdSerializer<Page<?>> {
+		private static final long serialVersionUID = 1L;
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		PageEnvelopeSerializer() {
+			super((Class) Page.class);
+		}
+
+		@Override
+		public void serialize(Page<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeStartObject();
+			provider.defaultSerializeField("content", page.getContent(), gen);
+			gen.writeNumberField("page", page.getNumber());
+			gen.writeNumberField("size", page.getSize());
+			gen.writeNumberField("totalElements", page.getTotalElements());
+			gen.writeNumberField("totalPages", page.getTotalPages());
+			gen.writeEndObject();
+		}
+	}
+
+}
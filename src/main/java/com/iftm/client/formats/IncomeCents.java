@@ -0,0 +1,55 @@
+package com.iftm.client.formats;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/*
+ * Renda em ponto fixo (centavos, inteiro) nos formatos compactos: varint ocupa
+ * menos que um double de 8 bytes e nao tem erro de arredondamento no consumidor.
+ */
+public final class IncomeCents {
+
+	private IncomeCents() {
+	}
+
+	public static long toCents(double income) {
+		return Math.round(income * 100);
+	}
+
+	public static double fromCents(long cents) {
+		return cents / 100.0;
+	}
+
+	public static class Serializer extends StdSerializer<Double> {
+		private static final long serialVersionUID = 1L;
+
+		public Serializer() {
+			super(Double.class);
+		}
+
+		@Override
+		public void serialize(Double value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeNumber(toCents(value));
+		}
+	}
+
+	public static class Deserializer extends StdDeserializer<Double> {
+		private static final long serialVersionUID = 1L;
+
+		public Deserializer() {
+			super(Double.class);
+		}
+
+		@Override
+		public Double deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			return fromCents(p.getValueAsLong());
+		}
+	}
+
+}
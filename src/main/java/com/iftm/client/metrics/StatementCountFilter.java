@@ -0,0 +1,102 @@
+package com.iftm.client.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Deteccao de N+1: registra quantos comandos SQL cada requisicao executou e
+ * avisa quando passa de client.metrics.max-statements-per-request. Requisicoes
+ * async sao registradas uma unica vez, quando terminam por sucesso, erro ou timeout.
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+	
+	private static final Logger log = LoggerFactory.getLogger(StatementCountFilter.class);
+	
+	private final int maxStatements;
+	private final DistributionSummary statements;
+	private final Counter excessive;
+	
+	public StatementCountFilter(@Value("${client.metrics.max-statements-per-request}") int maxStatements,
+			MeterRegistry registry) {
+		this.maxStatements = maxStatements;
+		this.statements = DistributionSummary.builder("client.request.statements")
+				.description("SQL statements issued per HTTP request")
+				.publishPercentileHistogram()
+				.register(registry);
+		this.excessive = Counter.builder("client.request.statements.excessive")
+				.description("Requests that issued more than the configured number of SQL statements")
+				.register(registry);
+	}
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		AtomicInteger count = StatementCounter.begin();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			StatementCounter.end();
+			if (request.isAsyncStarted()) {
+				AtomicBoolean recorded = new AtomicBoolean();
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						recordOnce();
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+						recordOnce();
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+						recordOnce();
+					}
+					
+					// Depois de onTimeout/onError o container ainda chama onComplete
+					private void recordOnce() {
+						if (recorded.compareAndSet(false, true)) {
+							record(request, count.get());
+						}
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			} else {
+				record(request, count.get());
+			}
+		}
+	}
+	
+	private void record(HttpServletRequest request, int count) {
+		statements.record(count);
+		if (count > maxStatements) {
+			excessive.increment();
+			log.warn("Possible N+1: {} {} issued {} SQL statements (limit {})", request.getMethod(),
+					request.getRequestURI(), count, maxStatements);
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.iftm.client.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Conta os comandos SQL preparados pelo Hibernate dentro de um escopo (uma
+ * requisicao HTTP). Registrado em hibernate.session_factory.statement_inspector;
+ * o Hibernate instancia a classe, por isso o escopo fica em um ThreadLocal.
+ */
+public class StatementCounter implements StatementInspector {
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+	
+	@Override
+	public String inspect(String sql) {
+		AtomicInteger count = CURRENT.get();
+		if (count != null) {
+			count.incrementAndGet();
+		}
+		return sql;
+	}
+	
+	public static AtomicInteger begin() {
+		AtomicInteger count = new AtomicInteger();
+		CURRENT.set(count);
+		return count;
+	}
+	
+	public static void end() {
+		CURRENT.remove();
+	}
+	
+	// Propaga o escopo da requisicao para tarefas executadas em outro pool
+	public static Runnable wrap(Runnable task) {
+		AtomicInteger count = CURRENT.get();
+		if (count == null) {
+			return task;
+		}
+		return () -> {
+			CURRENT.set(count);
+			try {
+				task.run();
+			} finally {
+				CURRENT.remove();
+			}
+		};
+	}
+
+}
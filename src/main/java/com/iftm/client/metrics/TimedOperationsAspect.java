@@ -0,0 +1,67 @@
+package com.iftm.client.metrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Um timer por metodo do ClientService (client.service) e por consulta do
+ * ClientRepository (client.repository), com histograma para percentis. Os
+ * timers ficam em cache por (nome, metodo, excecao): registrar no MeterRegistry
+ * a cada chamada custaria uma busca sincronizada no registro.
+ */
+@Aspect
+@Component
+public class TimedOperationsAspect {
+	
+	private final MeterRegistry registry;
+	private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+	
+	public TimedOperationsAspect(MeterRegistry registry) {
+		this.registry = registry;
+	}
+	
+	@Around("execution(public * com.iftm.client.services.ClientService.*(..))")
+	public Object timeService(ProceedingJoinPoint pjp) throws Throwable {
+		return time("client.service", pjp);
+	}
+	
+	@Around("this(com.iftm.client.repositories.ClientRepository)")
+	public Object timeRepository(ProceedingJoinPoint pjp) throws Throwable {
+		return time("client.repository", pjp);
+	}
+	
+	private Object time(String name, ProceedingJoinPoint pjp) throws Throwable {
+		long start = System.nanoTime();
+		String exception = "none";
+		try {
+			return pjp.proceed();
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			timer(name, pjp.getSignature().getName(), exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	private Timer timer(String name, String method, String exception) {
+		return timers.computeIfAbsent(List.of(name, method, exception), key -> Timer.builder(name)
+				.tag("method", method)
+				.tag("exception", exception)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofMillis(1))
+				.maximumExpectedValue(Duration.ofSeconds(10))
+				.register(registry));
+	}
+
+}
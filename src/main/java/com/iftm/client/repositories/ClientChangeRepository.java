@@ -0,0 +1,57 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.iftm.client.entities.ClientChange;
+
+@Repository
+public interface ClientChangeRepository extends JpaRepository<ClientChange, Long> {
+
+    // Linhas ainda nao despachadas, na ordem de gravacao
+    @Query("SELECT c FROM ClientChange c WHERE c.position IS NULL ORDER BY c.id")
+    List<ClientChange> findPending(Pageable pageable);
+
+    // Numera uma linha pendente; 0 se outro despachante ja a numerou
+    @Modifying
+    @Query("UPDATE ClientChange c SET c.position = :position WHERE c.id = :id AND c.position IS NULL")
+    int assignPosition(@Param("id") Long id, @Param("position") Long position);
+
+    @Query("SELECT MAX(c.position) FROM ClientChange c")
+    Optional<Long> findMaxPosition();
+
+    // Replay a partir de um offset
+    @Query("SELECT c FROM ClientChange c WHERE c.position > :position ORDER BY c.position")
+    List<ClientChange> findAfter(@Param("position") Long position, Pageable pageable);
+
+    // Maior offset de uma linha mais antiga que limit
+    @Query("SELECT MAX(c.position) FROM ClientChange c WHERE c.position IS NOT NULL AND c.createdAt < :limit")
+    Optional<Long> findMaxPositionBefore(@Param("limit") Instant limit);
+
+    // Remove os offsets ate position: a retencao corta um prefixo, sem lacunas no
+    // meio do que fica (linhas copiadas de outro shard mantem o createdAt original)
+    @Modifying
+    @Query("DELETE FROM ClientChange c WHERE c.position <= :position")
+    int deleteUpTo(@Param("position") Long position);
+
+    // Copia uma linha pendente de outro shard mantendo o id; 0 se ela ja foi copiada
+    @Modifying
+    @Query(value = "INSERT INTO tb_client_change (id, client_id, type, partial, payload, created_at)"
+            + " SELECT :#{#change.id}, :#{#change.clientId}, :#{#change.type.name()}, :#{#change.partial},"
+            + " :#{#change.payload}, :#{#change.createdAt}"
+            + " WHERE NOT EXISTS (SELECT 1 FROM tb_client_change WHERE id = :#{#change.id})", nativeQuery = true)
+    int copyPending(@Param("change") ClientChange change);
+
+    @Modifying
+    @Query("DELETE FROM ClientChange c WHERE c.id IN :ids AND c.position IS NULL")
+    int deletePendingByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,38 +1,105 @@
 package com.iftm.client.repositories;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import com.iftm.client.dto.ClientDTO;
 import com.iftm.client.entities.Client;
+import com.iftm.client.util.NameNormalizer;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientRepositoryCustom {
+
+    // Regiao do cache de consultas dos finders (ehcache.xml). O Hibernate invalida
+    // os resultados a cada escrita em tb_client feita pelo ClientService
+    String QUERY_CACHE_REGION = "client-queries";
+
+    // Projecao das consultas de leitura: monta o ClientDTO direto no SELECT
+    String PROJECTION = "SELECT new com.iftm.client.dto.ClientDTO(c.id, c.name, c.cpf, c.income, c.birthDate, "
+            + "c.children, c.version) FROM Client c";
 
     // Fernanda: implementacao do método que busca um cliente pelo nome ignorando
     // maiúsculas e minúsculas
-    @Query("SELECT c FROM Client c WHERE LOWER(c.name) = LOWER(:name)")
-    Optional<Client> findByNameIgnoreCase(@Param("name") String name);
+    // A comparacao e feita na coluna indexada name_normalized (sem acentos e em
+    // minusculas), sem aplicar LOWER() sobre a coluna
+    default Optional<Client> findByNameIgnoreCase(String name) {
+        return findByNameNormalized(NameNormalizer.normalize(name));
+    }
 
     // Fernanda: implementacao do método que busca clientes por parte do nome
     // ignorando maiúsculas e minúsculas
-    @Query("SELECT c FROM Client c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Client> findByNameContainingIgnoreCase(@Param("name") String name);
+    // O trigrama mais raro do termo restringe os candidatos pelo indice de
+    // tb_client_name_trigram; termos com menos de 3 caracteres varrem a coluna
+    default List<Client> findByNameContainingIgnoreCase(String name) {
+        String normalized = NameNormalizer.normalize(name);
+        return findNameTrigram(name)
+                .map(trigram -> findByNameNormalizedContaining(normalized, trigram))
+                .orElseGet(() -> findByNameNormalizedContaining(normalized));
+    }
+
+    // Trigrama usado pela busca por trecho do nome; vazio para nome nulo ou com
+    // menos de 3 caracteres
+    default Optional<String> findNameTrigram(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        return findRarestTrigram(NameNormalizer.trigrams(NameNormalizer.normalize(name)));
+    }
+
+    // Busca por prefixo do nome: o LIKE 'x%' pode ser atendido pelo indice
+    default List<Client> findByNameStartingWithIgnoreCase(String prefix) {
+        return findByNameNormalizedStartingWith(NameNormalizer.normalize(prefix));
+    }
+
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
+    @Query("SELECT c FROM Client c WHERE c.nameNormalized = :name")
+    Optional<Client> findByNameNormalized(@Param("name") String normalizedName);
+
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
+    @Query("SELECT c FROM Client c WHERE c.nameNormalized LIKE CONCAT('%', :name, '%')")
+    List<Client> findByNameNormalizedContaining(@Param("name") String normalizedName);
+
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
+    // Candidatos: clientes com o trigrama no nome; o LIKE confirma o termo inteiro
+    @Query("SELECT c FROM Client c WHERE c.id IN (SELECT t.id FROM Client t JOIN t.nameTrigrams g "
+            + "WHERE g = :trigram) AND c.nameNormalized LIKE CONCAT('%', :name, '%')")
+    List<Client> findByNameNormalizedContaining(@Param("name") String normalizedName,
+            @Param("trigram") String trigram);
+
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
+    @Query("SELECT c FROM Client c WHERE c.nameNormalized LIKE CONCAT(:prefix, '%')")
+    List<Client> findByNameNormalizedStartingWith(@Param("prefix") String normalizedPrefix);
 
     // Isabela: implementacao do método que busca clientes com salário maior que o
     // valor informado
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     @Query("SELECT c FROM Client c WHERE c.income > :income")
     List<Client> findByIncomeGreaterThan(Double income);
 
     // Isabela: implementacao do método que busca clientes com salário menor que o
     // valor informado
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     @Query("SELECT c FROM Client c WHERE c.income < :income")
     List<Client> findByIncomeLessThan(Double income);
 
@@ -41,19 +108,84 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     // @Param quando contém múltiplos parâmetros ou quando o nome do parâmetro no
     // método não corresponde exatamente ao nome do parâmetro na consulta. BETWEEN -
     // Os limites pertencem ao intervalo
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     @Query("SELECT c FROM Client c WHERE c.income BETWEEN :incomeInit AND :incomeEnd")
     List<Client> findByIncomeBetween(@Param("incomeInit") Double incomeInit, @Param("incomeEnd") Double incomeEnd);
 
     // Isabela: implementacao do método que busca clientes com salário igual ao valor fornecido
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     @Query("SELECT c FROM Client c WHERE c.income = :income")
     List<Client> findByIncomeEqual(@Param("income") Double income);
 
     // Ana: implementando método que busca clientes cuja data de nascimento está
     // entre os valores informados
+    @QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION) })
     List<Client> findByBirthDateBetween(Instant dataInicio, Instant dataTermino);
 
     // Ana: implementando método que deleta o registro de um cliente
     @Modifying
     @Query("DELETE FROM Client c WHERE c.id = :id")
-    public void deleteById(@NonNull Integer id);    
+    public void deleteById(@NonNull Integer id);
+
+    // Exclusao em lote: um unico DELETE por bloco de ids, sem carregar entidades
+    @Modifying
+    @Query("DELETE FROM Client c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.id FROM Client c WHERE c.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ids de um intervalo de nascimento em blocos ordenados, continuando apos afterId
+    @Query("SELECT c.id FROM Client c WHERE c.birthDate BETWEEN :dataInicio AND :dataTermino AND c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsByBirthDateBetween(@Param("dataInicio") Instant dataInicio,
+            @Param("dataTermino") Instant dataTermino, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT c.version FROM Client c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Carga em lote: busca de uma vez os clientes ja existentes de um bloco de CPFs
+    List<Client> findByCpfIn(Collection<String> cpfs);
+
+    // Exportacao: cursores com fetch size, consumidos dentro de uma transacao.
+    // A projecao direto em ClientDTO nao passa pelo contexto de persistencia. Os
+    // filtros repetem os predicados de findByIncomeBetween e findByBirthDateBetween
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROJECTION + " ORDER BY c.id")
+    Stream<ClientDTO> streamAll();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROJECTION + " WHERE c.income BETWEEN :incomeInit AND :incomeEnd ORDER BY c.id")
+    Stream<ClientDTO> streamByIncomeBetween(@Param("incomeInit") Double incomeInit, @Param("incomeEnd") Double incomeEnd);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROJECTION + " WHERE c.birthDate BETWEEN :dataInicio AND :dataTermino ORDER BY c.id")
+    Stream<ClientDTO> streamByBirthDateBetween(@Param("dataInicio") Instant dataInicio, @Param("dataTermino") Instant dataTermino);
+
+    // Carga do indice de renda em memoria: apenas (id, income), sem hidratar entidades
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id, c.income FROM Client c WHERE c.income IS NOT NULL")
+    Stream<Object[]> streamIncomes();
+
+    // Aniversarios: um intervalo de birth_month_day dentro de um mesmo ano, com a
+    // faixa de birth_year, atendido pelo indice (birth_month_day, birth_year)
+    @Query(PROJECTION + " WHERE c.birthMonthDay BETWEEN :start AND :end AND c.birthYear BETWEEN :minYear AND :maxYear")
+    List<ClientDTO> findByBirthdayWindow(@Param("start") int start, @Param("end") int end,
+            @Param("minYear") int minYear, @Param("maxYear") int maxYear);
+
+    // Contagem por (ano, mes/dia) de nascimento, suficiente para calcular a idade exata
+    @Query("SELECT c.birthYear, c.birthMonthDay, COUNT(c) FROM Client c WHERE c.birthYear IS NOT NULL"
+            + " GROUP BY c.birthYear, c.birthMonthDay")
+    List<Object[]> countByBirthYearAndMonthDay();
+
+    // Carga do indice de CPF: apenas (id, cpf)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id, c.cpf FROM Client c WHERE c.cpf IS NOT NULL")
+    Stream<Object[]> streamCpfs();
+
+    // Listagem paginada projetada direto em ClientDTO, sem hidratar entidades
+    @Query(value = PROJECTION, countQuery = "SELECT COUNT(c) FROM Client c")
+    Page<ClientDTO> findAllProjectedBy(Pageable pageable);
 }
@@ -0,0 +1,45 @@
+package com.iftm.client.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+
+public interface ClientRepositoryCustom {
+
+    // Atualiza o cliente com um unico UPDATE, sem carregar a entidade; do cache
+    // de segundo nivel sai apenas esse id. Com partial = true apenas os campos
+    // nao nulos de values sao gravados. Quando expectedVersion e informado, so
+    // atualiza se a versao ainda for a mesma. Retorna a quantidade de linhas
+    // alteradas (0 ou 1).
+    int updateColumns(Long id, Long expectedVersion, ClientDTO values, boolean partial);
+
+    // Dos trigramas informados, o que tem menos linhas em tb_client_name_trigram.
+    // As linhas de cada um sao contadas so ate um limite, entao um trigrama comum
+    // nao percorre o indice inteiro; vazio se trigrams for vazio
+    Optional<String> findRarestTrigram(Collection<String> trigrams);
+
+    // Listagem paginada que seleciona apenas as colunas pedidas; cada linha vem
+    // como um mapa campo -> valor, na ordem de fields
+    Page<Map<String, Object>> findAllFields(List<String> fields, Pageable pageable);
+
+    // Busca por Specification projetada direto em ClientDTO (as colunas de
+    // PROJECTION), sem carregar entidades no contexto de persistencia
+    Page<ClientDTO> findAllProjected(Specification<Client> spec, Pageable pageable);
+
+    // Paginacao por keyset em property (name, income ou birthDate), que aceitam
+    // nulos: na ordem crescente os nulos vem antes dos valores, na decrescente
+    // depois, sempre desempatados pelo id. Sem afterId devolve a primeira pagina;
+    // com ele continua apos o par (value, afterId), em que value pode ser nulo.
+    // O retorno Slice nao dispara count(*)
+    Slice<ClientDTO> findKeyset(String property, Direction direction, Object value, Long afterId, int size);
+}
@@ -0,0 +1,312 @@
+package com.iftm.client.repositories;
+
+import static com.iftm.client.repositories.ClientRepository.PROJECTION;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.engine.spi.TypedValue;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.InstantType;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.util.BirthDates;
+import com.iftm.client.util.NameNormalizer;
+
+public class ClientRepositoryImpl implements ClientRepositoryCustom {
+
+    // Acima disso o trigrama ja e comum demais para diferenciar dos outros
+    private static final int TRIGRAM_PROBE_LIMIT = 64;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateColumns(Long id, Long expectedVersion, ClientDTO values, boolean partial) {
+        Map<String, TypedValue> columns = new LinkedHashMap<>();
+        if (!partial || values.getName() != null) {
+            columns.put("name", new TypedValue(StandardBasicTypes.STRING, values.getName()));
+            columns.put("name_normalized",
+                    new TypedValue(StandardBasicTypes.STRING, NameNormalizer.normalize(values.getName())));
+        }
+        if (!partial || values.getCpf() != null) {
+            columns.put("cpf", new TypedValue(StandardBasicTypes.STRING, values.getCpf()));
+        }
+        if (!partial || values.getIncome() != null) {
+            columns.put("income", new TypedValue(StandardBasicTypes.DOUBLE, values.getIncome()));
+        }
+        if (!partial || values.getBirthDate() != null) {
+            columns.put("birth_date", new TypedValue(InstantType.INSTANCE, values.getBirthDate()));
+            columns.put("birth_month_day",
+                    new TypedValue(StandardBasicTypes.INTEGER, BirthDates.monthDay(values.getBirthDate())));
+            columns.put("birth_year", new TypedValue(StandardBasicTypes.INTEGER, BirthDates.year(values.getBirthDate())));
+        }
+        if (!partial || values.getChildren() != null) {
+            columns.put("children", new TypedValue(StandardBasicTypes.INTEGER, values.getChildren()));
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE tb_client SET version = version + 1");
+        for (String column : columns.keySet()) {
+            sql.append(", ").append(column).append(" = :").append(column);
+        }
+        sql.append(" WHERE id = :id");
+        if (expectedVersion != null) {
+            sql.append(" AND version = :version");
+        }
+
+        // SQL nativo sincronizado com um espaco vazio: um UPDATE em massa (JPQL ou
+        // nativo sobre tb_client) tiraria do cache de segundo nivel a regiao
+        // inteira de Client; aqui sai so o id alterado, depois do commit
+        NativeQuery<?> query = entityManager.unwrap(Session.class).createNativeQuery(sql.toString());
+        query.addSynchronizedQuerySpace("");
+        columns.forEach((column, value) -> query.setParameter(column, value.getValue(), value.getType()));
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        int updated = query.executeUpdate();
+        if (updated > 0 && columns.containsKey("name")) {
+            replaceTrigrams(id, (String) columns.get("name_normalized").getValue());
+        }
+        if (updated > 0) {
+            // Com os shards (multi-tenancy) a chave do cache inclui o tenant da
+            // sessao, que Cache.evictEntityData(Client.class, id) nao informa
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            SessionFactoryImplementor factory = session.getFactory();
+            EntityPersister persister = factory.getMetamodel().entityPersister(Client.class);
+            Object key = persister.getCacheAccessStrategy().generateCacheKey(id, persister, factory,
+                    session.getTenantIdentifier());
+            evict(factory, persister, key);
+            // De novo no fim da transacao: uma leitura concorrente pode ter
+            // devolvido ao cache a linha de antes do commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(factory, persister, key);
+                }
+            });
+        }
+        return updated;
+    }
+
+    // Mesmos trigramas que Client.setName grava pela entidade
+    private void replaceTrigrams(Long id, String normalized) {
+        Session session = entityManager.unwrap(Session.class);
+        session.createNativeQuery("DELETE FROM tb_client_name_trigram WHERE client_id = :id")
+                .addSynchronizedQuerySpace("").setParameter("id", id).executeUpdate();
+        List<String> trigrams = new ArrayList<>(NameNormalizer.trigrams(normalized));
+        if (trigrams.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO tb_client_name_trigram (client_id, trigram) VALUES ");
+        for (int i = 0; i < trigrams.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:id, :t").append(i).append(")");
+        }
+        NativeQuery<?> insert = session.createNativeQuery(sql.toString());
+        insert.addSynchronizedQuerySpace("");
+        insert.setParameter("id", id);
+        for (int i = 0; i < trigrams.size(); i++) {
+            insert.setParameter("t" + i, trigrams.get(i));
+        }
+        insert.executeUpdate();
+    }
+
+    @Override
+    public Optional<String> findRarestTrigram(Collection<String> trigrams) {
+        List<String> candidates = new ArrayList<>(trigrams);
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        StringBuilder sql = new StringBuilder("SELECT k, COUNT(*) FROM (");
+        for (int i = 0; i < candidates.size(); i++) {
+            sql.append(i == 0 ? "" : " UNION ALL ").append("(SELECT ").append(i)
+                    .append(" AS k FROM tb_client_name_trigram WHERE trigram = :t").append(i)
+                    .append(" LIMIT ").append(TRIGRAM_PROBE_LIMIT).append(")");
+        }
+        sql.append(") p GROUP BY k");
+        NativeQuery<?> query = entityManager.unwrap(Session.class).createNativeQuery(sql.toString());
+        for (int i = 0; i < candidates.size(); i++) {
+            query.setParameter("t" + i, candidates.get(i));
+        }
+        // Trigrama sem nenhuma linha nao aparece no resultado e fica com 0
+        long[] hits = new long[candidates.size()];
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            hits[((Number) columns[0]).intValue()] = ((Number) columns[1]).longValue();
+        }
+        int rarest = 0;
+        for (int i = 1; i < hits.length; i++) {
+            if (hits[i] < hits[rarest]) {
+                rarest = i;
+            }
+        }
+        return Optional.of(candidates.get(rarest));
+    }
+
+    // Mesma invalidacao de ReplicaLagInvalidator: a entidade do id e as consultas
+    // em cache, que nao veem o UPDATE pelos timestamps de tb_client
+    private static void evict(SessionFactoryImplementor factory, EntityPersister persister, Object key) {
+        persister.getCacheAccessStrategy().evict(key);
+        factory.getCache().evictQueryRegion(ClientRepository.QUERY_CACHE_REGION);
+        factory.getCache().evictDefaultQueryRegion();
+    }
+
+    @Override
+    public Page<Map<String, Object>> findAllFields(List<String> fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Client> root = query.from(Client.class);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        List<Map<String, Object>> content = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String field : fields) {
+                values.put(field, row.get(field));
+            }
+            content.add(values);
+        }
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> entityManager.createQuery("SELECT COUNT(c) FROM Client c", Long.class).getSingleResult());
+    }
+
+    @Override
+    public Page<ClientDTO> findAllProjected(Specification<Client> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ClientDTO> query = cb.createQuery(ClientDTO.class);
+        Root<Client> root = query.from(Client.class);
+        query.select(cb.construct(ClientDTO.class, root.get("id"), root.get("name"), root.get("cpf"),
+                root.get("income"), root.get("birthDate"), root.get("children"), root.get("version")));
+        Predicate where = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<ClientDTO> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Client> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Client> root = query.from(Client.class);
+        query.select(cb.count(root));
+        Predicate where = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Slice<ClientDTO> findKeyset(String property, Direction direction, Object value, Long afterId, int size) {
+        // Cada trecho da pagina e uma consulta "seek" que percorre um indice: as
+        // linhas com a coluna nula (em ordem de id) e as com valor (em ordem de
+        // coluna e id). Com o limite na coluna fora do OR o banco parte dele no indice
+        boolean asc = direction.isAscending();
+        String column = "c." + property;
+        String order = asc ? " ASC" : " DESC";
+        String byId = " ORDER BY c.id" + order;
+        String byColumn = " ORDER BY " + column + order + ", c.id" + order;
+        String nulls = PROJECTION + " WHERE " + column + " IS NULL";
+        String nullsAfter = nulls + (asc ? " AND c.id > :id" : " AND c.id < :id") + byId;
+        String seek = PROJECTION + (asc
+                ? " WHERE " + column + " >= :value AND (" + column + " > :value OR c.id > :id)"
+                : " WHERE " + column + " <= :value AND (" + column + " < :value OR c.id < :id)") + byColumn;
+
+        List<ClientDTO> content = new ArrayList<>(size + 1);
+        if (asc) {
+            if (value == null) {
+                fill(content, size, afterId == null ? nulls + byId : nullsAfter, null, afterId);
+                fillValues(content, size, column, asc, byColumn);
+            } else {
+                fill(content, size, seek, value, afterId);
+            }
+        } else if (afterId == null || value != null) {
+            if (afterId == null) {
+                fillValues(content, size, column, asc, byColumn);
+            } else {
+                fill(content, size, seek, value, afterId);
+            }
+            fill(content, size, nulls + byId, null, null);
+        } else {
+            fill(content, size, nullsAfter, null, afterId);
+        }
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size), hasNext);
+    }
+
+    // Todas as linhas com valor, a partir do menor (ou maior) deles: "IS NOT NULL"
+    // nao delimita o indice e ordenaria a tabela inteira
+    private void fillValues(List<ClientDTO> content, int size, String column, boolean asc, String byColumn) {
+        if (content.size() > size) {
+            return;
+        }
+        Object bound = entityManager.createQuery("SELECT " + (asc ? "MIN(" : "MAX(") + column + ") FROM Client c")
+                .getSingleResult();
+        if (bound != null) {
+            fill(content, size, PROJECTION + " WHERE " + column + (asc ? " >= :value" : " <= :value") + byColumn,
+                    bound, null);
+        }
+    }
+
+    // Completa content ate size + 1 linhas (a excedente indica a proxima pagina)
+    private void fill(List<ClientDTO> content, int size, String jpql, Object value, Long afterId) {
+        int missing = size + 1 - content.size();
+        if (missing <= 0) {
+            return;
+        }
+        TypedQuery<ClientDTO> query = entityManager.createQuery(jpql, ClientDTO.class).setMaxResults(missing);
+        if (value != null) {
+            query.setParameter("value", value);
+        }
+        if (afterId != null) {
+            query.setParameter("id", afterId);
+        }
+        content.addAll(query.getResultList());
+    }
+}
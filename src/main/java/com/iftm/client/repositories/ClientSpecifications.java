@@ -0,0 +1,67 @@
+package com.iftm.client.repositories;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.util.NameNormalizer;
+
+/*
+ * Predicados da busca combinada. Filtros nulos nao entram na consulta, entao o
+ * WHERE gerado so contem as colunas informadas.
+ */
+public final class ClientSpecifications {
+
+    private ClientSpecifications() {
+    }
+
+    // nameTrigram vem de ClientRepository.findNameTrigram(filter.getName())
+    public static Specification<Client> of(ClientFilterDTO filter, String nameTrigram) {
+        return Specification.where(nameContains(filter.getName(), nameTrigram))
+                .and(between("income", filter.getIncomeMin(), filter.getIncomeMax()))
+                .and(between("birthDate", filter.getBirthDateStart(), filter.getBirthDateEnd()))
+                .and(between("children", filter.getChildrenMin(), filter.getChildrenMax()));
+    }
+
+    // Mesma comparacao de findByNameContainingIgnoreCase, na coluna name_normalized;
+    // com trigram os candidatos saem do indice de tb_client_name_trigram
+    public static Specification<Client> nameContains(String name, String trigram) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + NameNormalizer.normalize(name) + "%";
+        return (root, query, cb) -> {
+            Predicate like = cb.like(root.get("nameNormalized"), pattern);
+            if (trigram == null) {
+                return like;
+            }
+            Subquery<Long> ids = query.subquery(Long.class);
+            Root<Client> candidate = ids.from(Client.class);
+            Join<Client, String> trigrams = candidate.join("nameTrigrams");
+            ids.select(candidate.get("id")).where(cb.equal(trigrams, trigram));
+            return cb.and(root.get("id").in(ids), like);
+        };
+    }
+
+    // Intervalo fechado; um limite nulo deixa o intervalo aberto daquele lado
+    public static <T extends Comparable<? super T>> Specification<Client> between(String attribute, T min, T max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (min == null) {
+                return cb.lessThanOrEqualTo(root.get(attribute), max);
+            }
+            if (max == null) {
+                return cb.greaterThanOrEqualTo(root.get(attribute), min);
+            }
+            return cb.between(root.get(attribute), min, max);
+        };
+    }
+
+}
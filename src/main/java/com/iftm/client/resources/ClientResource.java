@@ -1,25 +1,71 @@
 package com.iftm.client.resources;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.iftm.client.config.RequestExecutor;
+import com.iftm.client.dto.AgeBucketDTO;
+import com.iftm.client.dto.BatchResultDTO;
+import com.iftm.client.dto.BirthdayDTO;
+import com.iftm.client.dto.ClientChangeDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.dto.ClientSliceDTO;
+import com.iftm.client.dto.DeleteRequestDTO;
+import com.iftm.client.dto.DeleteResultDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.resources.exceptions.StandardError;
+import com.iftm.client.services.ClientBatchService;
+import com.iftm.client.services.ClientBirthdayService;
+import com.iftm.client.services.ClientChangeFeed;
+import com.iftm.client.services.ClientCollectionVersion;
+import com.iftm.client.services.ClientExportService;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.CpfIndex;
+import com.iftm.client.services.ExportFormat;
+import com.iftm.client.services.IncomeIndex;
+import com.iftm.client.services.events.ClientChangeListener;
+import com.iftm.client.services.exceptions.ConflictException;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.services.exceptions.PreconditionFailedException;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
 
 @RestController
 @RequestMapping(value = "/clients")
@@ -27,42 +73,315 @@ public class ClientResource {
 	
 	@Autowired
 	private ClientService service;
+	
+	@Autowired
+	private ClientBatchService batchService;
+	
+	@Autowired
+	private ClientExportService exportService;
+	
+	@Autowired
+	private IncomeIndex incomeIndex;
+	
+	@Autowired
+	private ClientBirthdayService birthdayService;
+	
+	@Autowired
+	private CpfIndex cpfIndex;
+	
+	@Autowired
+	private ClientCollectionVersion collectionVersion;
+	
+	@Autowired
+	private ClientChangeFeed changeFeed;
+	
+	@Autowired
+	private RequestExecutor executor;
+	
+	@Value("${client.changes.sse-timeout}")
+	private Duration sseTimeout;
+	
+	@Value("${client.paging.max-page-size}")
+	private int maxPageSize;
 
 	@GetMapping
-	public ResponseEntity<Page<ClientDTO>> findAll(
+	public CompletableFuture<ResponseEntity<Page<?>>> findAll(
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "fields", required = false) List<String> fields,
+			HttpServletRequest request) 
 	{
+		checkPage(page, linesPerPage);
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findAllPaged(pageRequest);
-		return ResponseEntity.ok().body(list);
+		String etag = ETags.ofCollection(collectionVersion.getEpoch(), collectionVersion.current(),
+				ETags.representation(request));
+		if (ETags.notModified(request, etag)) {
+			return notModified(etag);
+		}
+		return executor.submit(() -> {
+			Page<?> list = fields == null ? service.findAllPaged(pageRequest) : service.findAllPaged(pageRequest, fields);
+			return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(list);
+		});
+	}
+	
+	@GetMapping(value = "/search")
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> search(ClientFilterDTO filter,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			HttpServletRequest request)
+	{
+		checkPage(page, linesPerPage);
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy, "id");
+		String etag = ETags.ofCollection(collectionVersion.getEpoch(), collectionVersion.current(),
+				ETags.representation(request));
+		if (ETags.notModified(request, etag)) {
+			return notModified(etag);
+		}
+		return executor.submit(() -> {
+			Page<ClientDTO> list = service.search(filter, pageRequest);
+			return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(list);
+		});
+	}
+	
+	@GetMapping(value = "/keyset")
+	public CompletableFuture<ResponseEntity<ClientSliceDTO>> findAllKeyset(
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			HttpServletRequest request)
+	{
+		checkPage(0, linesPerPage);
+		Direction sortDirection = Direction.valueOf(direction);
+		String etag = ETags.ofCollection(collectionVersion.getEpoch(), collectionVersion.current(),
+				ETags.representation(request));
+		if (ETags.notModified(request, etag)) {
+			return notModified(etag);
+		}
+		return executor.submit(() -> {
+			ClientSliceDTO slice = service.findAllKeyset(orderBy, sortDirection, linesPerPage, cursor);
+			return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(slice);
+		});
+	}
+	
+	@GetMapping(value = "/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@RequestParam(value = "format", defaultValue = "ndjson") String format,
+			@RequestParam(value = "incomeMin", required = false) Double incomeMin,
+			@RequestParam(value = "incomeMax", required = false) Double incomeMax,
+			@RequestParam(value = "birthDateStart", required = false) Instant birthDateStart,
+			@RequestParam(value = "birthDateEnd", required = false) Instant birthDateEnd)
+	{
+		ExportFormat exportFormat = ExportFormat.of(format);
+		exportService.checkFilter(incomeMin, incomeMax, birthDateStart, birthDateEnd);
+		StreamingResponseBody body = out -> exportService.export(exportFormat, incomeMin, incomeMax,
+				birthDateStart, birthDateEnd, out);
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=clients." + exportFormat.name().toLowerCase())
+				.body(body);
+	}
+	
+	@GetMapping(value = "/stats/income")
+	public ResponseEntity<IncomeStatsDTO> incomeStats(
+			@RequestParam(value = "min", required = false) Double min,
+			@RequestParam(value = "max", required = false) Double max,
+			@RequestParam(value = "buckets", defaultValue = "10") Integer buckets)
+	{
+		IncomeStatsDTO stats = incomeIndex.stats(min, max, buckets);
+		return ResponseEntity.ok().body(stats);
+	}
+	
+	@GetMapping(value = "/stats/age")
+	public CompletableFuture<ResponseEntity<List<AgeBucketDTO>>> ageStats(
+			@RequestParam(value = "size", defaultValue = "10") Integer size)
+	{
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		return executor.submit(() -> {
+			List<AgeBucketDTO> buckets = birthdayService.ageBuckets(today, size);
+			return ResponseEntity.ok().body(buckets);
+		});
+	}
+	
+	@GetMapping(value = "/birthdays")
+	public CompletableFuture<ResponseEntity<List<BirthdayDTO>>> birthdays(
+			@RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+			@RequestParam(value = "days", defaultValue = "30") Integer days,
+			@RequestParam(value = "age", required = false) Integer age)
+	{
+		LocalDate start = from != null ? from : LocalDate.now(ZoneOffset.UTC);
+		return executor.submit(() -> {
+			List<BirthdayDTO> list = birthdayService.upcoming(start, days, age);
+			return ResponseEntity.ok().body(list);
+		});
+	}
+	
+	// Alteracoes a partir de since (ou do Last-Event-ID de uma reconexao; sem
+	// nenhum dos dois, apenas as novas). O id de cada evento e o offset
+	@GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter changes(@RequestParam(value = "since", required = false) Long since,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId, HttpServletRequest request)
+	{
+		String path = request.getRequestURI();
+		long from = since != null ? since : lastEventId != null ? lastEventId : changeFeed.getLastPosition();
+		SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+		ClientChangeFeed.Subscription subscription = changeFeed.subscribe(from, new ClientChangeListener() {
+			
+			@Override
+			public void onChanges(List<ClientChangeDTO> changes) throws IOException {
+				for (ClientChangeDTO change : changes) {
+					emitter.send(SseEmitter.event().id(String.valueOf(change.getPosition()))
+							.name(change.getType().name()).data(change, MediaType.APPLICATION_JSON));
+				}
+			}
+			
+			// Evento error e fim do stream: o consumidor precisa se ressincronizar
+			@Override
+			public void onPurged(long position) throws IOException {
+				StandardError err = new StandardError();
+				err.setTimestamp(Instant.now());
+				err.setStatus(HttpStatus.GONE.value());
+				err.setError("Changes purged");
+				err.setMessage("Changes after " + position + " are no longer retained");
+				err.setPath(path);
+				emitter.send(SseEmitter.event().name("error").data(err, MediaType.APPLICATION_JSON));
+				emitter.complete();
+			}
+			
+		});
+		emitter.onCompletion(subscription::cancel);
+		emitter.onTimeout(subscription::cancel);
+		emitter.onError(e -> subscription.cancel());
+		return emitter;
+	}
+	
+	@GetMapping(value = "/changes/log")
+	public ResponseEntity<List<ClientChangeDTO>> changesLog(
+			@RequestParam(value = "since", defaultValue = "0") Long since,
+			@RequestParam(value = "limit", defaultValue = "500") Integer limit)
+	{
+		List<ClientChangeDTO> changes = changeFeed.findAfter(since, limit);
+		return ResponseEntity.ok().body(changes);
 	}
 	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> findById(@PathVariable Long id) {
-		ClientDTO dto = service.findById(id);
-		return ResponseEntity.ok().body(dto);
+	public CompletableFuture<ResponseEntity<ClientDTO>> findById(@PathVariable Long id, HttpServletRequest request) {
+		String representation = ETags.representation(request);
+		Long cachedVersion = service.cachedVersion(id);
+		if (cachedVersion != null
+				&& ETags.notModified(request, ETags.ofClient(id, cachedVersion, representation))) {
+			return notModified(ETags.ofClient(id, cachedVersion, representation));
+		}
+		return executor.submit(() -> {
+			ClientDTO dto = service.findById(id);
+			return ResponseEntity.ok().eTag(ETags.ofClient(id, dto.getVersion(), representation))
+					.varyBy(HttpHeaders.ACCEPT).body(dto);
+		});
+	}
+	
+	@GetMapping(value = "/by-cpf/{cpf}")
+	public CompletableFuture<ResponseEntity<ClientDTO>> findByCpf(@PathVariable String cpf) {
+		return executor.submit(() -> {
+			ClientDTO dto = service.findByCpf(cpf);
+			return ResponseEntity.ok().body(dto);
+		});
+	}
+	
+	@PostMapping(value = "/by-cpf/exists")
+	public ResponseEntity<Map<String, Boolean>> existsByCpf(@RequestBody List<String> cpfs) {
+		Map<String, Boolean> result = cpfIndex.exists(cpfs);
+		return ResponseEntity.ok().body(result);
 	}
 	
 	@PostMapping
-	public ResponseEntity<ClientDTO> insert(@RequestBody ClientDTO dto) {
-		dto = service.insert(dto);
-		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
-				.buildAndExpand(dto.getId()).toUri();
-		return ResponseEntity.created(uri).body(dto);
+	public CompletableFuture<ResponseEntity<ClientDTO>> insert(@RequestBody ClientDTO dto, HttpServletRequest request) {
+		ServletUriComponentsBuilder current = ServletUriComponentsBuilder.fromCurrentRequest();
+		String representation = ETags.representation(request);
+		return executor.submit(() -> {
+			ClientDTO created = service.insert(dto);
+			URI uri = current.path("/{id}").buildAndExpand(created.getId()).toUri();
+			return ResponseEntity.created(uri).eTag(ETags.ofClient(created.getId(), created.getVersion(), representation))
+					.varyBy(HttpHeaders.ACCEPT).body(created);
+		});
+	}
+	
+	@PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+			"application/cbor", "application/x-jackson-smile", "application/x-protobuf" })
+	public ResponseEntity<List<BatchResultDTO>> insertBatch(InputStream body,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+		List<BatchResultDTO> results = batchService.upsert(body, contentType);
+		return ResponseEntity.ok().body(results);
 	}
 	
 	@PutMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> update(@PathVariable Long id, @RequestBody ClientDTO dto) {
-		dto = service.update(id, dto);
-		return ResponseEntity.ok().body(dto);
+	public CompletableFuture<ResponseEntity<ClientDTO>> update(@PathVariable Long id, @RequestBody ClientDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, HttpServletRequest request) {
+		if (ifMatch != null) {
+			dto.setVersion(ETags.expectedVersion(ifMatch, id));
+		}
+		String representation = ETags.representation(request);
+		return executor.submit(() -> {
+			ClientDTO updated = ifMatch == null ? service.update(id, dto) : precondition(() -> service.update(id, dto));
+			return ResponseEntity.ok().eTag(ETags.ofClient(id, updated.getVersion(), representation))
+					.varyBy(HttpHeaders.ACCEPT).body(updated);
+		});
+	}
+	
+	@PatchMapping(value = "/{id}")
+	public CompletableFuture<ResponseEntity<Void>> patch(@PathVariable Long id, @RequestBody ClientDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, HttpServletRequest request) {
+		if (ifMatch != null) {
+			dto.setVersion(ETags.expectedVersion(ifMatch, id));
+		}
+		String representation = ETags.representation(request);
+		return executor.submit(() -> {
+			Long version = ifMatch == null ? service.patch(id, dto) : precondition(() -> service.patch(id, dto));
+			return version == null ? ResponseEntity.noContent().<Void>build()
+					: ResponseEntity.noContent().eTag(ETags.ofClient(id, version, representation))
+							.varyBy(HttpHeaders.ACCEPT).<Void>build();
+		});
+	}
+	
+	@DeleteMapping
+	public ResponseEntity<DeleteResultDTO> deleteBatch(@RequestBody DeleteRequestDTO request) {
+		DeleteResultDTO result = batchService.delete(request);
+		return ResponseEntity.ok().body(result);
 	}
 	
 	@DeleteMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> delete(@PathVariable Long id) {
-		service.delete(id);
-		return ResponseEntity.noContent().build();
+	public CompletableFuture<ResponseEntity<ClientDTO>> delete(@PathVariable Long id) {
+		return executor.submit(() -> {
+			service.delete(id);
+			return ResponseEntity.noContent().<ClientDTO>build();
+		});
+	}
+	
+	private void checkPage(int page, int linesPerPage) {
+		if (page < 0) {
+			throw new InvalidRequestException("Invalid page " + page);
+		}
+		if (linesPerPage < 1 || linesPerPage > maxPageSize) {
+			throw new InvalidRequestException("linesPerPage must be between 1 and " + maxPageSize);
+		}
+	}
+	
+	private static <T> CompletableFuture<ResponseEntity<T>> notModified(String etag) {
+		return CompletableFuture.completedFuture(
+				ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).<T>build());
+	}
+	
+	// Com If-Match, versao divergente ou cliente inexistente (inclusive com *) e
+	// falha de pre-condicao (412), nao conflito nem 404
+	private static <T> T precondition(Supplier<T> write) {
+		try {
+			return write.get();
+		} catch (ConflictException | ResourceNotFoundException e) {
+			throw new PreconditionFailedException(e.getMessage());
+		}
 	}
 }
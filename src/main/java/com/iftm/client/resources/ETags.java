@@ -0,0 +1,103 @@
+package com.iftm.client.resources;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import com.iftm.client.formats.CompactFormats;
+import com.iftm.client.services.exceptions.PreconditionFailedException;
+
+/*
+ * ETags fortes das respostas, um por representacao (JSON, CBOR, Smile e
+ * Protobuf tem bytes diferentes): "id-versao-formato" para um cliente e
+ * "clients-epoch-versao-formato" para as listagens (ver
+ * ClientCollectionVersion). As respostas levam Vary: Accept.
+ */
+final class ETags {
+
+	// Na ordem dos conversores: */* fica com JSON
+	private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON, CompactFormats.CBOR,
+			CompactFormats.SMILE, CompactFormats.PROTOBUF);
+	private static final List<String> NAMES = List.of("json", "cbor", "smile", "protobuf");
+
+	private ETags() {
+	}
+
+	static String ofClient(Long id, Long version, String representation) {
+		return "\"" + id + "-" + version + "-" + representation + "\"";
+	}
+
+	static String ofCollection(String epoch, long version, String representation) {
+		return "\"clients-" + epoch + "-" + version + "-" + representation + "\"";
+	}
+
+	// Formato que a negociacao de conteudo vai escolher para o Accept da
+	// requisicao; Accept invalido acaba em 406 de qualquer forma
+	static String representation(HttpServletRequest request) {
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+		if (accept == null || accept.isBlank()) {
+			return NAMES.get(0);
+		}
+		try {
+			List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+			MediaType.sortBySpecificityAndQuality(accepted);
+			for (MediaType type : accepted) {
+				for (int i = 0; i < REPRESENTATIONS.size(); i++) {
+					if (type.getQualityValue() > 0 && type.isCompatibleWith(REPRESENTATIONS.get(i))) {
+						return NAMES.get(i);
+					}
+				}
+			}
+		} catch (InvalidMediaTypeException e) {
+			// cai no padrao abaixo
+		}
+		return NAMES.get(0);
+	}
+
+	// So o If-None-Match decide o 304. As respostas nao levam Last-Modified: com
+	// a precisao de segundos da data HTTP, uma escrita no mesmo segundo ainda
+	// passaria num If-Modified-Since e devolveria o conteudo antigo
+	static boolean notModified(HttpServletRequest request, String etag) {
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		return ifNoneMatch != null && matches(ifNoneMatch, etag);
+	}
+
+	// Comparacao fraca, como pede o If-None-Match
+	static boolean matches(String header, String etag) {
+		for (String candidate : header.split(",")) {
+			String value = candidate.trim();
+			if (value.startsWith("W/")) {
+				value = value.substring(2);
+			}
+			if (value.equals("*") || value.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Versao exigida por um If-Match "id-versao-formato"; null para "*". Qualquer
+	// formato vale: todos representam o mesmo estado do cliente
+	static Long expectedVersion(String ifMatch, Long id) {
+		String value = ifMatch.trim();
+		if (value.equals("*")) {
+			return null;
+		}
+		String prefix = "\"" + id + "-";
+		int end = value.indexOf('-', prefix.length());
+		if (value.startsWith(prefix) && value.endsWith("\"") && end > prefix.length()
+				&& NAMES.contains(value.substring(end + 1, value.length() - 1))) {
+			try {
+				return Long.valueOf(value.substring(prefix.length(), end));
+			} catch (NumberFormatException e) {
+				// cai no erro abaixo
+			}
+		}
+		throw new PreconditionFailedException("If-Match does not match client " + id);
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.iftm.client.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.iftm.client.dto.BatchResultDTO;
+import com.iftm.client.dto.BatchResultDTO.Status;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.DeleteRequestDTO;
+import com.iftm.client.dto.DeleteResultDTO;
+import com.iftm.client.formats.ClientProtobuf;
+import com.iftm.client.formats.CompactFormats;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.sharding.ClientShards;
+
+@Service
+public class ClientBatchService {
+	
+	@Autowired
+	private ClientService service;
+	
+	@Autowired
+	private ClientShards shards;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private CompactFormats formats;
+	
+	@Value("${client.batch.chunk-size}")
+	private int chunkSize;
+	
+	public List<BatchResultDTO> upsert(InputStream input) throws IOException {
+		return upsert(input, MediaType.APPLICATION_JSON);
+	}
+	
+	// Le um array ou sequencia de valores (JSON, NDJSON, CBOR, Smile) ou um
+	// ClientList Protobuf sem materializar a entrada inteira; cada bloco de
+	// chunkSize registros e gravado na sua propria transacao (uma por shard)
+	public List<BatchResultDTO> upsert(InputStream input, MediaType contentType) throws IOException {
+		if (CompactFormats.PROTOBUF.isCompatibleWith(contentType)) {
+			return upsert(ClientProtobuf.reader(input)::next);
+		}
+		ObjectMapper mapper = formats.mapperFor(contentType);
+		try (MappingIterator<ClientDTO> it = (mapper != null ? mapper : objectMapper).readerFor(ClientDTO.class)
+				.readValues(input)) {
+			return upsert(() -> it.hasNextValue() ? it.nextValue() : null);
+		}
+	}
+	
+	private List<BatchResultDTO> upsert(ClientSource source) throws IOException {
+		List<BatchResultDTO> results = new ArrayList<>();
+		List<ClientDTO> chunk = new ArrayList<>(chunkSize);
+		try {
+			ClientDTO dto;
+			while ((dto = source.next()) != null) {
+				chunk.add(dto);
+				if (chunk.size() == chunkSize) {
+					results.addAll(upsertChunk(chunk));
+					chunk.clear();
+				}
+			}
+		} catch (JsonProcessingException | InvalidProtocolBufferException e) {
+			throw new InvalidRequestException("Malformed input after " + (results.size() + chunk.size())
+					+ " rows; " + results.size() + " rows were already processed");
+		}
+		if (!chunk.isEmpty()) {
+			results.addAll(upsertChunk(chunk));
+		}
+		return results;
+	}
+	
+	// Exclusao em massa por lista de ids ou por intervalo de nascimento; cada bloco
+	// de chunkSize ids vira um DELETE ... WHERE id IN (...) na sua propria transacao
+	public DeleteResultDTO delete(DeleteRequestDTO request) {
+		List<Long> ids = request.getIds();
+		Instant start = request.getBirthDateStart();
+		Instant end = request.getBirthDateEnd();
+		boolean byRange = start != null || end != null;
+		if ((ids == null) == !byRange) {
+			throw new InvalidRequestException("Inform either ids or birthDateStart/birthDateEnd");
+		}
+		// Antes do primeiro bloco: um id nulo nao deixa a exclusao pela metade
+		if (ids != null && ids.stream().anyMatch(Objects::isNull)) {
+			throw new InvalidRequestException("ids must not contain null");
+		}
+		long deleted = 0;
+		if (ids != null) {
+			for (int from = 0; from < ids.size(); from += chunkSize) {
+				deleted += service.deleteAll(ids.subList(from, Math.min(from + chunkSize, ids.size()))).size();
+			}
+			return new DeleteResultDTO(deleted);
+		}
+		if (start == null || end == null || start.isAfter(end)) {
+			throw new InvalidRequestException("Invalid birthDate range");
+		}
+		Long afterId = 0L;
+		List<Long> chunk;
+		do {
+			chunk = service.findIdsByBirthDateBetween(start, end, afterId, chunkSize);
+			if (!chunk.isEmpty()) {
+				deleted += service.deleteAll(chunk).size();
+				afterId = chunk.get(chunk.size() - 1);
+			}
+		} while (chunk.size() == chunkSize);
+		return new DeleteResultDTO(deleted);
+	}
+	
+	// Com clientes particionados, a falha de um shard desfaz so a parte do bloco que era dele
+	private List<BatchResultDTO> upsertChunk(List<ClientDTO> chunk) {
+		return shards.mapByShard(chunk, dto -> shards.shardForCpf(dto.getCpf()), (shard, part) -> upsertPart(part));
+	}
+	
+	private List<BatchResultDTO> upsertPart(List<ClientDTO> part) {
+		try {
+			return service.upsertAll(part);
+		} catch (DataAccessException e) {
+			List<BatchResultDTO> failed = new ArrayList<>(part.size());
+			for (ClientDTO dto : part) {
+				failed.add(new BatchResultDTO(dto.getCpf(), null, Status.FAILED, "Chunk rolled back: "
+						+ e.getMostSpecificCause().getMessage()));
+			}
+			return failed;
+		}
+	}
+	
+	// Proximo registro da entrada, ou null no fim
+	private interface ClientSource {
+		ClientDTO next() throws IOException;
+	}
+
+}
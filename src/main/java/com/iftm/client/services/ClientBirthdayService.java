@@ -0,0 +1,99 @@
+package com.iftm.client.services;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.iftm.client.dto.AgeBucketDTO;
+import com.iftm.client.dto.BirthdayDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.sharding.ClientShards;
+import com.iftm.client.util.BirthDates;
+
+/*
+ * Consultas de aniversario e idade sobre as colunas derivadas birth_month_day e
+ * birth_year, por faixa indexada (por shard). Em ano nao bissexto quem nasceu em
+ * 29/02 faz aniversario e completa idade em 28/02.
+ */
+@Service
+public class ClientBirthdayService {
+	
+	private static final int MAX_DAYS = 366;
+	
+	@Autowired
+	private ClientRepository repository;
+	
+	@Autowired
+	private ClientShards shards;
+	
+	// Clientes que fazem aniversario entre from e from + days - 1, na ordem das
+	// datas; com age, apenas os que completam essa idade na data
+	public List<BirthdayDTO> upcoming(LocalDate from, int days, Integer age) {
+		if (days < 1 || days > MAX_DAYS) {
+			throw new InvalidRequestException("days must be between 1 and " + MAX_DAYS);
+		}
+		if (age != null && age < 0) {
+			throw new InvalidRequestException("Invalid age " + age);
+		}
+		LocalDate to = from.plusDays(days - 1);
+		List<BirthdayDTO> result = new ArrayList<>();
+		// Um trecho por ano: com 366 dias o mesmo dia/mes aparece nos dois, em anos diferentes
+		for (int year = from.getYear(); year <= to.getYear(); year++) {
+			LocalDate start = year == from.getYear() ? from : LocalDate.of(year, 1, 1);
+			LocalDate end = year == to.getYear() ? to : LocalDate.of(year, 12, 31);
+			addBirthdays(result, start, end, age);
+		}
+		result.sort(Comparator.comparing(BirthdayDTO::getBirthday).thenComparing(x -> x.getClient().getName()));
+		return result;
+	}
+	
+	private void addBirthdays(List<BirthdayDTO> result, LocalDate start, LocalDate end, Integer age) {
+		int startMonthDay = BirthDates.toInt(MonthDay.from(start));
+		int endMonthDay = BirthDates.celebratedOn(end);
+		int minYear = age == null ? Integer.MIN_VALUE : start.getYear() - age;
+		int maxYear = age == null ? Integer.MAX_VALUE : start.getYear() - age;
+		List<ClientDTO> clients = shards.findAll(shard -> repository.findByBirthdayWindow(startMonthDay, endMonthDay,
+				minYear, maxYear));
+		for (ClientDTO client : clients) {
+			LocalDate birthday = MonthDay.from(client.getBirthDate().atZone(ZoneOffset.UTC)).atYear(start.getYear());
+			result.add(new BirthdayDTO(client, birthday, birthday.getYear() - BirthDates.year(client.getBirthDate())));
+		}
+	}
+	
+	// Quantidade de clientes por faixa de idade completa em today, de size em size anos
+	public List<AgeBucketDTO> ageBuckets(LocalDate today, int size) {
+		if (size < 1) {
+			throw new InvalidRequestException("Invalid bucket size " + size);
+		}
+		int todayMonthDay = BirthDates.celebratedOn(today);
+		long[] counts = new long[0];
+		for (Object[] row : shards.findAll(shard -> repository.countByBirthYearAndMonthDay())) {
+			int year = (Integer) row[0];
+			int monthDay = (Integer) row[1];
+			int age = today.getYear() - year - (monthDay > todayMonthDay ? 1 : 0);
+			if (age < 0) {
+				continue;
+			}
+			int bucket = age / size;
+			if (bucket >= counts.length) {
+				counts = Arrays.copyOf(counts, bucket + 1);
+			}
+			counts[bucket] += (Long) row[2];
+		}
+		List<AgeBucketDTO> result = new ArrayList<>(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			result.add(new AgeBucketDTO(i * size, (i + 1) * size - 1, counts[i]));
+		}
+		return result;
+	}
+
+}
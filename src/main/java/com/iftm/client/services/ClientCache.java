@@ -0,0 +1,108 @@
+package com.iftm.client.services;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.iftm.client.datasource.ReadYourWrites;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*
+ * Cache de leitura de ClientService.findById. Ids inexistentes tambem sao
+ * guardados (Optional vazio, com TTL proprio) para que varreduras de ids nao
+ * cheguem ao banco. As entradas sao removidas depois do commit de cada escrita.
+ * Quem le recebe uma copia: alterar o DTO devolvido nao altera o cache.
+ */
+@Component
+public class ClientCache {
+	
+	private final boolean enabled;
+	private final Cache<Long, Optional<ClientDTO>> cache;
+	
+	public ClientCache(@Value("${client.cache.enabled}") boolean enabled,
+			@Value("${client.cache.maximum-size}") long maximumSize,
+			@Value("${client.cache.ttl}") Duration ttl,
+			@Value("${client.cache.negative-ttl}") Duration negativeTtl,
+			MeterRegistry registry) {
+		this.enabled = enabled;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfter(new Expiry<Long, Optional<ClientDTO>>() {
+					@Override
+					public long expireAfterCreate(Long key, Optional<ClientDTO> value, long currentTime) {
+						return value.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+					}
+
+					@Override
+					public long expireAfterUpdate(Long key, Optional<ClientDTO> value, long currentTime, long currentDuration) {
+						return expireAfterCreate(key, value, currentTime);
+					}
+
+					@Override
+					public long expireAfterRead(Long key, Optional<ClientDTO> value, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, cache, "clients");
+	}
+	
+	// Sessao que acabou de escrever le do primario, sem o cache (pode ter vindo de uma
+	// replica). Dentro de uma transacao de escrita a leitura enxerga dados ainda nao
+	// confirmados, que nao podem ir para o cache
+	public ClientDTO get(Long id, Function<Long, ClientDTO> loader) {
+		if (!enabled || ReadYourWrites.isActive() || inWriteTransaction()) {
+			return loader.apply(id);
+		}
+		Optional<ClientDTO> value = cache.get(id, key -> {
+			try {
+				return Optional.of(loader.apply(key));
+			} catch (ResourceNotFoundException e) {
+				return Optional.empty();
+			}
+		});
+		return new ClientDTO(value.orElseThrow(() -> new ResourceNotFoundException("Entity not found")));
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	// Versao do cliente se ele estiver no cache, sem consultar o banco
+	public Long cachedVersion(Long id) {
+		if (!enabled || ReadYourWrites.isActive()) {
+			return null;
+		}
+		Optional<ClientDTO> value = cache.getIfPresent(id);
+		return value != null && value.isPresent() ? value.get().getVersion() : null;
+	}
+	
+	public void evict(Long id) {
+		cache.invalidate(id);
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		evict(event.getId());
+	}
+	
+	private static boolean inWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+}
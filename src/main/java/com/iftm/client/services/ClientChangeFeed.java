@@ -0,0 +1,387 @@
+package com.iftm.client.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.repositories.ClientChangeRepository;
+import com.iftm.client.services.events.ClientChangeListener;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.sharding.ClientShards;
+
+/*
+ * Despacha o outbox de alteracoes. O despachante, em agendador proprio, numera
+ * as linhas pendentes em ordem (position, sem lacunas) e enfileira os lotes
+ * para os inscritos.
+ * Cada inscrito guarda o proprio offset e uma fila limitada, esvaziada no
+ * clientExecutor fora de qualquer trava: a inscricao primeiro faz o replay do
+ * outbox a partir de since e depois recebe os lotes ao vivo, sem perder nem
+ * repetir alteracoes. Se a fila enche (inscrito lento), os lotes sao
+ * descartados e o inscrito volta a ler do outbox. Varias instancias podem
+ * despachar: cada uma entrega a partir do outbox o que qualquer delas numerou.
+ * Com clientes particionados, o outbox numerado e o do shard 0: as linhas
+ * pendentes dos outros shards sao copiadas para ele antes da numeracao.
+ */
+@Component
+public class ClientChangeFeed {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(ClientChangeFeed.class);
+	
+	@Autowired
+	private ClientChangeRepository repository;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Autowired
+	private ClientShards shards;
+	
+	@Autowired
+	@Qualifier("clientExecutor")
+	private ThreadPoolTaskExecutor executor;
+	
+	@Autowired(required = false)
+	private List<ClientChangeListener> listeners = List.of();
+	
+	@Value("${client.changes.batch-size}")
+	private int batchSize;
+	
+	@Value("${client.changes.retention}")
+	private Duration retention;
+	
+	@Value("${client.changes.dispatch-interval-ms}")
+	private long dispatchInterval;
+	
+	@Value("${client.changes.subscriber-buffer}")
+	private int subscriberBuffer;
+	
+	private final Object dispatchLock = new Object();
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+	private volatile long lastPosition;
+	
+	// Fora do contexto: um TaskScheduler declarado como bean viraria o agendador
+	// de todos os @Scheduled, e o compartilhado atrasaria o despacho atras do
+	// monitor de replicas
+	private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+	
+	@PostConstruct
+	public void load() {
+		lastPosition = repository.findMaxPosition().orElse(0L);
+		scheduler.setThreadNamePrefix("client-changes-");
+		// Um despacho em andamento termina antes de o repositorio ser destruido
+		scheduler.setWaitForTasksToCompleteOnShutdown(true);
+		scheduler.setAwaitTerminationSeconds(10);
+		scheduler.initialize();
+		scheduler.scheduleWithFixedDelay(this::dispatch, Duration.ofMillis(dispatchInterval));
+		scheduler.scheduleWithFixedDelay(this::purge, Instant.now().plus(Duration.ofHours(1)), Duration.ofHours(1));
+	}
+	
+	// No fechamento do contexto, antes da destruicao dos beans: o repositorio
+	// chega aqui como proxy preguicoso (bootstrap deferred do Spring Data), entao
+	// o @PreDestroy sozinho nao garante que ele ainda exista durante o despacho
+	@EventListener(ContextClosedEvent.class)
+	@PreDestroy
+	public void stop() {
+		scheduler.shutdown();
+	}
+	
+	// Beans ClientChangeListener recebem as alteracoes a partir da inicializacao
+	@EventListener(ApplicationReadyEvent.class)
+	public void subscribeListeners() {
+		for (ClientChangeListener listener : listeners) {
+			subscribe(lastPosition, listener);
+		}
+	}
+	
+	public long getLastPosition() {
+		return lastPosition;
+	}
+	
+	// Inscreve listener a partir do offset since (exclusivo). O replay do outbox
+	// e as entregas rodam no clientExecutor; a inscricao devolvida pode ser
+	// cancelada a qualquer momento. Registrada antes do replay: lotes
+	// despachados durante ele ficam na fila e as repeticoes sao descartadas.
+	// Com o clientExecutor cheio a inscricao e desfeita (TaskRejectedException)
+	public Subscription subscribe(long since, ClientChangeListener listener) {
+		Subscription subscription = new Subscription(listener, since);
+		subscriptions.add(subscription);
+		try {
+			subscription.schedule();
+		} catch (TaskRejectedException e) {
+			subscriptions.remove(subscription);
+			throw e;
+		}
+		return subscription;
+	}
+	
+	// Pagina do outbox apos since, para consumidores que preferem consultar
+	public List<ClientChangeDTO> findAfter(long since, int limit) {
+		if (limit < 1 || limit > batchSize) {
+			throw new InvalidRequestException("limit must be between 1 and " + batchSize);
+		}
+		return toDTOs(repository.findAfter(since, PageRequest.of(0, limit)));
+	}
+	
+	public void dispatch() {
+		synchronized (dispatchLock) {
+			try {
+				if (shards.isSharded()) {
+					relay();
+				}
+				int assigned;
+				do {
+					assigned = assignPositions();
+				} while (assigned == batchSize);
+			} catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+				LOG.debug("Client changes were numbered concurrently; retrying on the next run", e);
+			}
+			// Entrega lendo do outbox: inclui linhas numeradas por outras instancias
+			List<ClientChangeDTO> batch;
+			do {
+				batch = toDTOs(repository.findAfter(lastPosition, PageRequest.of(0, batchSize)));
+				if (!batch.isEmpty()) {
+					lastPosition = batch.get(batch.size() - 1).getPosition();
+					deliver(batch);
+				}
+			} while (batch.size() == batchSize);
+			// Inscricoes recusadas pelo clientExecutor cheio voltam a ser agendadas
+			for (Subscription subscription : subscriptions) {
+				subscription.retry();
+			}
+		}
+	}
+	
+	public void purge() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		Integer deleted = tx.execute(status -> repository.findMaxPositionBefore(Instant.now().minus(retention))
+				.map(repository::deleteUpTo).orElse(0));
+		LOG.info("Purged {} dispatched client changes older than {}", deleted, retention);
+	}
+	
+	// Copia as pendentes de cada shard para o outbox do shard 0, com o mesmo id
+	// (unico entre os shards), e depois as apaga na origem. Se a copia for
+	// repetida, por falha antes da exclusao ou por outra instancia, o id ja
+	// existente no shard 0 a descarta
+	private void relay() {
+		for (int i = 1; i < shards.count(); i++) {
+			int shard = i;
+			List<ClientChange> pending;
+			do {
+				pending = shards.inShard(shard, true, () -> repository.findPending(PageRequest.of(0, batchSize)));
+				if (pending.isEmpty()) {
+					break;
+				}
+				List<ClientChange> batch = pending;
+				shards.inShard(0, false, () -> {
+					for (ClientChange change : batch) {
+						repository.copyPending(change);
+					}
+					return null;
+				});
+				List<Long> ids = batch.stream().map(ClientChange::getId).collect(Collectors.toList());
+				shards.inShard(shard, false, () -> repository.deletePendingByIdIn(ids));
+			} while (pending.size() == batchSize);
+		}
+	}
+	
+	// Numera um lote de pendentes a partir do maior position ja gravado; a
+	// unicidade de position e o UPDATE condicional barram numeracao concorrente
+	private int assignPositions() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		return tx.execute(status -> {
+			List<ClientChange> pending = repository.findPending(PageRequest.of(0, batchSize));
+			long next = repository.findMaxPosition().orElse(0L);
+			for (ClientChange change : pending) {
+				if (repository.assignPosition(change.getId(), ++next) == 0) {
+					throw new ConcurrencyFailureException("Client change " + change.getId() + " already numbered");
+				}
+			}
+			return pending.size();
+		});
+	}
+	
+	private void deliver(List<ClientChangeDTO> batch) {
+		for (Subscription subscription : subscriptions) {
+			subscription.offer(batch);
+		}
+	}
+	
+	private List<ClientChangeDTO> toDTOs(List<ClientChange> changes) {
+		List<ClientChangeDTO> result = new ArrayList<>(changes.size());
+		for (ClientChange change : changes) {
+			ClientDTO client = null;
+			if (change.getPayload() != null) {
+				try {
+					client = objectMapper.readValue(change.getPayload(), ClientDTO.class);
+				} catch (JsonProcessingException e) {
+					throw new IllegalStateException("Invalid payload in client change " + change.getId(), e);
+				}
+			}
+			result.add(new ClientChangeDTO(change.getPosition(), change.getClientId(), change.getType(),
+					change.isPartial(), client, change.getCreatedAt()));
+		}
+		return result;
+	}
+	
+	public class Subscription {
+		
+		private final ClientChangeListener listener;
+		private final BlockingQueue<List<ClientChangeDTO>> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		// Le do outbox antes da fila: no replay inicial e apos descartar lotes
+		private volatile boolean behind = true;
+		private volatile long position;
+		private volatile boolean cancelled;
+		
+		private Subscription(ClientChangeListener listener, long position) {
+			this.listener = listener;
+			this.position = position;
+		}
+		
+		public void cancel() {
+			cancelled = true;
+			subscriptions.remove(this);
+			queue.clear();
+		}
+		
+		public boolean isCancelled() {
+			return cancelled;
+		}
+		
+		// Ultimo offset entregue
+		public long getPosition() {
+			return position;
+		}
+		
+		// Chamado pelo despachante: nunca bloqueia, falha nem chama o listener
+		private void offer(List<ClientChangeDTO> batch) {
+			if (!queue.offer(batch)) {
+				behind = true;
+			}
+			trySchedule();
+		}
+		
+		private void retry() {
+			if (behind) {
+				trySchedule();
+			}
+		}
+		
+		// Recusada pelo clientExecutor cheio, a inscricao fica atrasada: o
+		// despachante tenta de novo e ela rele do outbox o que ficou na fila
+		private void schedule() {
+			if (!cancelled && scheduled.compareAndSet(false, true)) {
+				try {
+					executor.execute(this::drain);
+				} catch (TaskRejectedException e) {
+					behind = true;
+					scheduled.set(false);
+					throw e;
+				}
+			}
+		}
+		
+		private void trySchedule() {
+			try {
+				schedule();
+			} catch (TaskRejectedException e) {
+				LOG.debug("Client change subscription delayed: executor is full", e);
+			}
+		}
+		
+		// Uma execucao por vez; um lote oferecido durante a saida reagenda
+		private void drain() {
+			try {
+				while (!cancelled) {
+					if (behind) {
+						behind = false;
+						queue.clear();
+						catchUp();
+						continue;
+					}
+					List<ClientChangeDTO> batch = queue.poll();
+					if (batch == null) {
+						break;
+					}
+					deliver(batch);
+				}
+			} catch (Exception e) {
+				LOG.debug("Client change subscription cancelled", e);
+				cancel();
+			} finally {
+				scheduled.set(false);
+			}
+			if (!queue.isEmpty() || behind) {
+				trySchedule();
+			}
+		}
+		
+		// Alteracoes ja removidas pela retencao interrompem a inscricao: o
+		// inscrito recebe onPurged e precisa se ressincronizar
+		private void catchUp() throws Exception {
+			List<ClientChangeDTO> page;
+			do {
+				long known = lastPosition;
+				page = findAfter(position, batchSize);
+				long next = page.isEmpty() ? known : page.get(0).getPosition() - 1;
+				if (next > position) {
+					cancel();
+					listener.onPurged(position);
+					return;
+				}
+				deliver(page);
+			} while (page.size() == batchSize && !cancelled);
+		}
+		
+		private void deliver(List<ClientChangeDTO> batch) throws Exception {
+			List<ClientChangeDTO> unseen = new ArrayList<>(batch.size());
+			for (ClientChangeDTO change : batch) {
+				if (change.getPosition() > position) {
+					unseen.add(change);
+				}
+			}
+			if (unseen.isEmpty() || cancelled) {
+				return;
+			}
+			listener.onChanges(unseen);
+			position = unseen.get(unseen.size() - 1).getPosition();
+		}
+		
+	}
+
+}
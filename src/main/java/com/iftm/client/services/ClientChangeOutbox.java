@@ -0,0 +1,45 @@
+package com.iftm.client.services;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.repositories.ClientChangeRepository;
+import com.iftm.client.services.events.ClientChangedEvent;
+
+/*
+ * Grava cada ClientChangedEvent no outbox tb_client_change. O listener e
+ * sincrono e exige a transacao da escrita: a alteracao e o registro no outbox
+ * sao confirmados ou desfeitos juntos. A publicacao fica com ClientChangeFeed.
+ */
+@Component
+public class ClientChangeOutbox {
+	
+	@Autowired
+	private ClientChangeRepository repository;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@EventListener
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void onClientChanged(ClientChangedEvent event) {
+		String payload = null;
+		if (event.getClient() != null) {
+			try {
+				payload = objectMapper.writeValueAsString(event.getClient());
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException("Could not serialize client " + event.getId(), e);
+			}
+		}
+		repository.save(new ClientChange(event.getId(), event.getType(), event.isPartial(), payload, Instant.now()));
+	}
+
+}
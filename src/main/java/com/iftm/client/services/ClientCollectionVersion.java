@@ -0,0 +1,50 @@
+package com.iftm.client.services;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.services.events.ClientChangeListener;
+import com.iftm.client.services.events.ClientChangedEvent;
+
+/*
+ * Versao da colecao de clientes: incrementada depois do commit de cada escrita
+ * local e a cada lote do feed de alteracoes, que traz pelo outbox as escritas
+ * de todas as instancias (com o atraso do despacho). Serve de ETag para as
+ * listagens, que podem responder 304 sem ir ao banco. O epoch (instante de
+ * inicializacao) evita reaproveitar versoes depois de um restart; como cada instancia tem o seu, um ETag de outra instancia
+ * nunca casa e so custa uma resposta 200.
+ */
+@Component
+public class ClientCollectionVersion implements ClientChangeListener {
+	
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+	private final AtomicLong version = new AtomicLong();
+	
+	public long current() {
+		return version.get();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		increment();
+	}
+	
+	// Escritas locais contam de novo aqui; so custa um 304 perdido
+	@Override
+	public void onChanges(List<ClientChangeDTO> changes) {
+		increment();
+	}
+	
+	private void increment() {
+		version.incrementAndGet();
+	}
+	
+	public String getEpoch() {
+		return epoch;
+	}
+
+}
@@ -0,0 +1,195 @@
+package com.iftm.client.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.google.protobuf.CodedOutputStream;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.formats.ClientProtobuf;
+import com.iftm.client.formats.CompactFormats;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.sharding.ClientShards;
+
+@Service
+public class ClientExportService {
+	
+	private static final String CSV_HEADER = "id,name,cpf,income,birthDate,children\n";
+	
+	@Autowired
+	private ClientRepository repository;
+	
+	@Autowired
+	private ClientShards shards;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private CompactFormats formats;
+	
+	public void checkFilter(Double incomeMin, Double incomeMax, Instant birthDateStart, Instant birthDateEnd) {
+		boolean income = incomeMin != null || incomeMax != null;
+		boolean birthDate = birthDateStart != null || birthDateEnd != null;
+		if (income && birthDate) {
+			throw new InvalidRequestException("Filter by either income or birth date, not both");
+		}
+		if (income && (incomeMin == null || incomeMax == null)) {
+			throw new InvalidRequestException("Income filter requires incomeMin and incomeMax");
+		}
+		if (birthDate && (birthDateStart == null || birthDateEnd == null)) {
+			throw new InvalidRequestException("Birth date filter requires birthDateStart and birthDateEnd");
+		}
+	}
+	
+	// Percorre o cursor do banco linha a linha, um shard depois do outro, cada um
+	// na sua transacao; as linhas sao projetadas direto em ClientDTO, sem entidades
+	// gerenciadas, entao o heap fica constante. O shard esta nos bits altos do id,
+	// entao a saida continua em ordem de id
+	public void export(ExportFormat format, Double incomeMin, Double incomeMax, Instant birthDateStart,
+			Instant birthDateEnd, OutputStream out) throws IOException {
+		checkFilter(incomeMin, incomeMax, birthDateStart, birthDateEnd);
+		ClientSink sink = sink(format, out);
+		try {
+			shards.forEachShard(shard -> {
+				try (Stream<ClientDTO> stream = open(incomeMin, incomeMax, birthDateStart, birthDateEnd)) {
+					sink.write(stream.iterator());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		sink.finish();
+	}
+	
+	private ClientSink sink(ExportFormat format, OutputStream out) throws IOException {
+		switch (format) {
+		case CBOR:
+		case SMILE:
+			return sequence(format == ExportFormat.CBOR ? formats.getCbor() : formats.getSmile(), out);
+		case PROTOBUF:
+			CodedOutputStream protobuf = CodedOutputStream.newInstance(out);
+			return new ClientSink() {
+				@Override
+				public void write(Iterator<ClientDTO> it) throws IOException {
+					ClientProtobuf.writeClients(protobuf, it);
+				}
+				
+				@Override
+				public void finish() throws IOException {
+					protobuf.flush();
+				}
+			};
+		default:
+			return text(format, out);
+		}
+	}
+	
+	private ClientSink text(ExportFormat format, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		ObjectWriter json = objectMapper.writerFor(ClientDTO.class);
+		if (format == ExportFormat.CSV) {
+			writer.write(CSV_HEADER);
+		}
+		return new ClientSink() {
+			@Override
+			public void write(Iterator<ClientDTO> it) throws IOException {
+				while (it.hasNext()) {
+					ClientDTO dto = it.next();
+					if (format == ExportFormat.CSV) {
+						writeCsv(writer, dto);
+					} else {
+						writer.write(json.writeValueAsString(dto));
+						writer.write('\n');
+					}
+				}
+			}
+			
+			@Override
+			public void finish() throws IOException {
+				writer.flush();
+			}
+		};
+	}
+	
+	private static ClientSink sequence(ObjectMapper mapper, OutputStream out) throws IOException {
+		ObjectWriter writer = mapper.writerFor(ClientDTO.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		SequenceWriter sequence = writer.writeValues(out);
+		return new ClientSink() {
+			@Override
+			public void write(Iterator<ClientDTO> it) throws IOException {
+				while (it.hasNext()) {
+					sequence.write(it.next());
+				}
+			}
+			
+			@Override
+			public void finish() throws IOException {
+				sequence.close();
+			}
+		};
+	}
+	
+	private Stream<ClientDTO> open(Double incomeMin, Double incomeMax, Instant birthDateStart, Instant birthDateEnd) {
+		if (incomeMin != null) {
+			return repository.streamByIncomeBetween(incomeMin, incomeMax);
+		}
+		if (birthDateStart != null) {
+			return repository.streamByBirthDateBetween(birthDateStart, birthDateEnd);
+		}
+		return repository.streamAll();
+	}
+	
+	private void writeCsv(Writer writer, ClientDTO dto) throws IOException {
+		writer.write(csv(dto.getId()));
+		writer.write(',');
+		writer.write(csv(dto.getName()));
+		writer.write(',');
+		writer.write(csv(dto.getCpf()));
+		writer.write(',');
+		writer.write(csv(dto.getIncome()));
+		writer.write(',');
+		writer.write(csv(dto.getBirthDate()));
+		writer.write(',');
+		writer.write(csv(dto.getChildren()));
+		writer.write('\n');
+	}
+	
+	private static String csv(Object value) {
+		if (value == null) {
+			return "";
+		}
+		String text = value.toString();
+		if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+			return text;
+		}
+		return '"' + text.replace("\"", "\"\"") + '"';
+	}
+	
+	// Destino do export, alimentado com o cursor de cada shard
+	private interface ClientSink {
+		
+		void write(Iterator<ClientDTO> it) throws IOException;
+		
+		void finish() throws IOException;
+		
+	}
+
+}
@@ -1,22 +1,46 @@
 package com.iftm.client.services;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-
-import javax.persistence.EntityNotFoundException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.NullHandling;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.iftm.client.dto.BatchResultDTO;
+import com.iftm.client.dto.BatchResultDTO.Status;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.dto.ClientSliceDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ClientSpecifications;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.services.exceptions.ConflictException;
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.InvalidRequestException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.sharding.ClientOrder;
+import com.iftm.client.sharding.ClientShards;
+import com.iftm.client.util.Cpf;
+import com.iftm.client.util.SortedMerge;
 
 @Service
 public class ClientService {
@@ -24,46 +48,326 @@ public class ClientService {
 	@Autowired
 	private ClientRepository repository;
 	
-	@Transactional(readOnly = true)
+	@Autowired
+	private ClientCache cache;
+	
+	@Autowired
+	private CpfIndex cpfIndex;
+	
+	@Autowired
+	private ReadCoalescer coalescer;
+	
+	@Autowired
+	private ClientShards shards;
+	
+	@Autowired
+	private ApplicationEventPublisher publisher;
+	
+	private static final Set<String> FIELDS = Set.of("id", "name", "cpf", "income", "birthDate", "children", "version");
+	
+	// Transacoes abertas dentro do voo: chamadas iguais e simultaneas dividem a
+	// mesma consulta (uma por shard)
 	public Page<ClientDTO> findAllPaged(PageRequest pageRequest) {
-		Page<Client> list =  repository.findAll(pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		checkSort(pageRequest.getSort());
+		return coalescer.findAllPaged(pageRequest, () -> shards.findPage(pageRequest,
+				repository::findAllProjectedBy, ClientOrder.of(pageRequest.getSort())));
+	}
+	
+	public Page<Map<String, Object>> findAllPaged(PageRequest pageRequest, List<String> requested) {
+		// "?fields=" chega como lista vazia; campos repetidos viram um so
+		if (requested.isEmpty()) {
+			throw new InvalidRequestException("fields must not be empty");
+		}
+		for (String field : requested) {
+			if (!FIELDS.contains(field)) {
+				throw new InvalidRequestException("Invalid field " + field);
+			}
+		}
+		List<String> fields = requested.stream().distinct().collect(Collectors.toList());
+		checkSort(pageRequest.getSort());
+		if (!shards.isSharded()) {
+			return shards.inShard(0, true, () -> repository.findAllFields(fields, pageRequest));
+		}
+		// A intercalacao compara as colunas do Sort e o id, que saem da resposta depois
+		List<String> selected = new ArrayList<>(fields);
+		for (Sort.Order order : pageRequest.getSort().and(Sort.by("id"))) {
+			if (!selected.contains(order.getProperty())) {
+				selected.add(order.getProperty());
+			}
+		}
+		Page<Map<String, Object>> page = shards.findPage(pageRequest, p -> repository.findAllFields(selected, p),
+				ClientOrder.ofFields(pageRequest.getSort()));
+		if (selected.size() == fields.size()) {
+			return page;
+		}
+		return page.map(row -> {
+			Map<String, Object> values = new LinkedHashMap<>();
+			for (String field : fields) {
+				values.put(field, row.get(field));
+			}
+			return values;
+		});
 	}
 	
-	@Transactional(readOnly = true)
+	public Page<ClientDTO> search(ClientFilterDTO filter, PageRequest pageRequest) {
+		checkRange(filter.getIncomeMin(), filter.getIncomeMax(), "income");
+		checkRange(filter.getBirthDateStart(), filter.getBirthDateEnd(), "birthDate");
+		checkRange(filter.getChildrenMin(), filter.getChildrenMax(), "children");
+		checkSort(pageRequest.getSort());
+		return shards.findPage(pageRequest,
+				p -> repository.findAllProjected(
+						ClientSpecifications.of(filter, repository.findNameTrigram(filter.getName()).orElse(null)), p),
+				ClientOrder.of(pageRequest.getSort()));
+	}
+	
+	public ClientSliceDTO findAllKeyset(String orderBy, Direction direction, int size, String cursor) {
+		KeysetCursor.checkOrderBy(orderBy);
+		// Mesma posicao dos nulos de findKeyset, para a intercalacao entre os shards
+		NullHandling nulls = direction.isAscending() ? NullHandling.NULLS_FIRST : NullHandling.NULLS_LAST;
+		PageRequest pageRequest = PageRequest.of(0, size,
+				Sort.by(new Sort.Order(direction, orderBy, nulls), new Sort.Order(direction, "id")));
+		KeysetCursor position = cursor == null ? null : KeysetCursor.decode(cursor, orderBy, direction);
+		Slice<ClientDTO> slice = shards.findSlice(pageRequest,
+				p -> repository.findKeyset(orderBy, direction, position == null ? null : position.getValue(),
+						position == null ? null : position.getId(), p.getPageSize()),
+				ClientOrder.of(pageRequest.getSort()));
+		List<ClientDTO> content = slice.getContent();
+		String nextCursor = null;
+		if (slice.hasNext()) {
+			nextCursor = KeysetCursor.of(orderBy, direction, content.get(content.size() - 1)).encode();
+		}
+		return new ClientSliceDTO(content, nextCursor, slice.hasNext());
+	}
+	
+	// Com o cache ligado o Caffeine ja carrega cada id uma unica vez; o
+	// coalescer so entra quando o cache esta desligado
 	public ClientDTO findById(Long id) {
-		Optional<Client> obj = repository.findById(id);
-		Client entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-		return new ClientDTO(entity);
+		if (!cache.isEnabled()) {
+			return coalescer.findById(id, () -> load(id));
+		}
+		return cache.get(id, this::load);
 	}
 	
-	@Transactional
+	private ClientDTO load(Long id) {
+		int shard = shards.shardOf(id);
+		if (shard < 0) {
+			throw new ResourceNotFoundException("Entity not found");
+		}
+		return shards.inShard(shard, true, () -> {
+			Optional<Client> obj = repository.findById(id);
+			Client entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
+			return new ClientDTO(entity);
+		});
+	}
+	
+	// Versao conhecida sem ir ao banco (cliente no cache), ou null
+	public Long cachedVersion(Long id) {
+		return cache.cachedVersion(id);
+	}
+	
+	public ClientDTO findByCpf(String cpf) {
+		String normalized = Cpf.normalize(cpf);
+		if (normalized == null) {
+			throw new InvalidRequestException("Invalid cpf " + cpf);
+		}
+		Long id = cpfIndex.findId(normalized);
+		if (id == null) {
+			throw new ResourceNotFoundException("Entity not found");
+		}
+		return findById(id);
+	}
+	
+	// O cliente novo vai para o shard do seu CPF
 	public ClientDTO insert(ClientDTO dto) {
-		Client entity = dto.toEntity();
-		entity = repository.save(entity);
-		return new ClientDTO(entity);
+		stripCpf(dto);
+		return shards.inShard(shards.shardForCpf(dto.getCpf()), false, () -> {
+			Client entity = dto.toEntity();
+			entity = repository.save(entity);
+			ClientDTO result = new ClientDTO(entity);
+			publisher.publishEvent(ClientChangedEvent.created(result));
+			return result;
+		});
 	}
 	
-	@Transactional
-	public ClientDTO update(Long id, ClientDTO dto) {
-		try {
-			Client entity = repository.getOne(id);
+	// Uma transacao por shard envolvido, na ordem dos shards; com um unico shard,
+	// o lote inteiro e atomico
+	public List<BatchResultDTO> upsertAll(List<ClientDTO> dtos) {
+		dtos.forEach(ClientService::stripCpf);
+		return shards.mapByShard(dtos, dto -> shards.shardForCpf(dto.getCpf()),
+				(shard, part) -> shards.inShard(shard, false, () -> upsertInShard(part)));
+	}
+	
+	private List<BatchResultDTO> upsertInShard(List<ClientDTO> dtos) {
+		List<String> cpfs = dtos.stream().map(ClientDTO::getCpf).filter(x -> x != null).collect(Collectors.toList());
+		Map<String, Client> byCpf = new HashMap<>();
+		if (!cpfs.isEmpty()) {
+			for (Client existing : repository.findByCpfIn(cpfs)) {
+				byCpf.putIfAbsent(existing.getCpf(), existing);
+			}
+		}
+		List<Client> entities = new ArrayList<>(dtos.size());
+		List<BatchResultDTO> results = new ArrayList<>(dtos.size());
+		for (ClientDTO dto : dtos) {
+			if (dto.getCpf() == null) {
+				entities.add(null);
+				results.add(new BatchResultDTO(null, null, Status.FAILED, "cpf is required"));
+				continue;
+			}
+			Client entity = byCpf.get(dto.getCpf());
+			Status status = Status.UPDATED;
+			if (entity == null) {
+				entity = new Client();
+				status = Status.CREATED;
+			}
 			updateData(entity, dto);
-			entity = repository.save(entity);
-			return new ClientDTO(entity);
-		} catch (EntityNotFoundException e) {
+			if (entity.getId() == null) {
+				entity = repository.save(entity);
+				byCpf.put(entity.getCpf(), entity);
+			}
+			entities.add(entity);
+			results.add(new BatchResultDTO(dto.getCpf(), null, status, null));
+		}
+		repository.flush();
+		for (int i = 0; i < results.size(); i++) {
+			Client entity = entities.get(i);
+			if (entity != null) {
+				BatchResultDTO result = results.get(i);
+				result.setId(entity.getId());
+				ClientDTO state = new ClientDTO(entity);
+				publisher.publishEvent(result.getStatus() == Status.CREATED ? ClientChangedEvent.created(state)
+						: ClientChangedEvent.updated(state));
+			}
+		}
+		return results;
+	}
+	
+	public ClientDTO update(Long id, ClientDTO dto) {
+		stripCpf(dto);
+		return shards.inShard(shardForWrite(id, dto.getCpf()), false, () -> {
+			if (repository.updateColumns(id, dto.getVersion(), dto, false) == 0) {
+				throw notUpdated(id, dto.getVersion());
+			}
+			ClientDTO result = new ClientDTO(id, dto.getName(), dto.getCpf(), dto.getIncome(), dto.getBirthDate(),
+					dto.getChildren());
+			result.setVersion(dto.getVersion() != null ? dto.getVersion() + 1
+					: repository.findVersionById(id).orElse(null));
+			publisher.publishEvent(ClientChangedEvent.updated(result));
+			return result;
+		});
+	}
+	
+	public Long patch(Long id, ClientDTO dto) {
+		if (dto.getName() == null && dto.getCpf() == null && dto.getIncome() == null && dto.getBirthDate() == null
+				&& dto.getChildren() == null) {
+			throw new InvalidRequestException("No fields to update");
+		}
+		stripCpf(dto);
+		return shards.inShard(shardForWrite(id, dto.getCpf()), false, () -> {
+			if (repository.updateColumns(id, dto.getVersion(), dto, true) == 0) {
+				throw notUpdated(id, dto.getVersion());
+			}
+			ClientDTO changes = new ClientDTO(id, dto.getName(), dto.getCpf(), dto.getIncome(), dto.getBirthDate(),
+					dto.getChildren());
+			publisher.publishEvent(ClientChangedEvent.patched(changes));
+			return dto.getVersion() != null ? dto.getVersion() + 1 : null;
+		});
+	}
+	
+	// Shard do cliente id. O shard segue o CPF com que o cliente foi criado, entao
+	// um CPF novo precisa cair no mesmo shard
+	private int shardForWrite(Long id, String cpf) {
+		int shard = shards.shardOf(id);
+		if (shard < 0) {
 			throw new ResourceNotFoundException("Id not found " + id);
 		}
+		if (cpf != null && shards.isSharded() && shards.shardForCpf(cpf) != shard) {
+			throw new InvalidRequestException("cpf " + cpf + " belongs to another shard than client " + id);
+		}
+		return shard;
+	}
+	
+	private RuntimeException notUpdated(Long id, Long expectedVersion) {
+		if (expectedVersion != null && repository.existsById(id)) {
+			return new ConflictException("Version conflict for id " + id);
+		}
+		return new ResourceNotFoundException("Id not found " + id);
 	}
 	
 	public void delete(Long id) {
-		try {
-			repository.deleteById(id);
-		} catch (EmptyResultDataAccessException e) {
+		int shard = shards.shardOf(id);
+		if (shard < 0) {
 			throw new ResourceNotFoundException("Id not found " + id);
+		}
+		shards.inShard(shard, false, () -> {
+			try {
+				if (repository.deleteByIdIn(List.of(id)) == 0) {
+					throw new ResourceNotFoundException("Id not found " + id);
+				}
+				publisher.publishEvent(ClientChangedEvent.deleted(id));
+			} catch (DataIntegrityViolationException e) {
+				throw new DatabaseException("Integrity violation");
+			}
+			return null;
+		});
+	}
+	
+	// Exclui um bloco de ids com um unico DELETE por shard; ids inexistentes sao
+	// ignorados. Devolve os ids efetivamente removidos
+	public List<Long> deleteAll(Collection<Long> ids) {
+		if (ids.stream().anyMatch(Objects::isNull)) {
+			throw new InvalidRequestException("ids must not contain null");
+		}
+		List<List<Long>> parts = shards.partition(ids, shards::shardOf);
+		List<Long> deleted = new ArrayList<>();
+		for (int shard = 0; shard < parts.size(); shard++) {
+			List<Long> part = parts.get(shard);
+			if (!part.isEmpty()) {
+				deleted.addAll(shards.inShard(shard, false, () -> deleteInShard(part)));
+			}
+		}
+		return deleted;
+	}
+	
+	private List<Long> deleteInShard(Collection<Long> ids) {
+		List<Long> existing = repository.findIdsByIdIn(ids);
+		if (existing.isEmpty()) {
+			return existing;
+		}
+		try {
+			repository.deleteByIdIn(existing);
 		} catch (DataIntegrityViolationException e) {
 			throw new DatabaseException("Integrity violation");
 		}
+		for (Long id : existing) {
+			publisher.publishEvent(ClientChangedEvent.deleted(id));
+		}
+		return existing;
+	}
+	
+	// Os limit menores ids apos afterId entre os de todos os shards
+	public List<Long> findIdsByBirthDateBetween(Instant start, Instant end, Long afterId, int limit) {
+		List<List<Long>> ids = shards.scatter(
+				shard -> repository.findIdsByBirthDateBetween(start, end, afterId, PageRequest.of(0, limit)));
+		return SortedMerge.merge(ids, Comparator.naturalOrder(), 0, limit);
+	}
+
+	private static <T extends Comparable<? super T>> void checkRange(T min, T max, String name) {
+		if (min != null && max != null && min.compareTo(max) > 0) {
+			throw new InvalidRequestException("Invalid " + name + " range");
+		}
+	}
+
+	private static void checkSort(Sort sort) {
+		for (Sort.Order order : sort) {
+			if (!FIELDS.contains(order.getProperty())) {
+				throw new InvalidRequestException("Invalid orderBy " + order.getProperty());
+			}
+		}
+	}
+
+	// O CPF e gravado e comparado (uk_client_cpf, upsert por CPF) so com os digitos
+	private static void stripCpf(ClientDTO dto) {
+		dto.setCpf(Cpf.strip(dto.getCpf()));
 	}
 
 	private void updateData(Client entity, ClientDTO dto) {
@@ -0,0 +1,121 @@
+package com.iftm.client.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.sharding.ClientShards;
+import com.iftm.client.util.Cpf;
+import com.iftm.client.util.LongLongHashMap;
+
+/*
+ * Indice em memoria CPF -> id, em mapas de long primitivos (cerca de 32 bytes
+ * por cliente). Carregado na inicializacao a partir de uma projecao (id, cpf) e
+ * mantido pelos eventos de escrita. CPFs gravados sem 11 digitos ficam de fora.
+ */
+@Component
+public class CpfIndex {
+	
+	@Autowired
+	private ClientRepository repository;
+	
+	@Autowired
+	private ClientShards shards;
+	
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private LongLongHashMap idByCpf;
+	private LongLongHashMap cpfById;
+	
+	@PostConstruct
+	public void load() {
+		// Em sequencia: roda durante a criacao dos beans, quando threads do
+		// shardExecutor esperariam pela inicializacao do repositorio
+		long[] expected = new long[1];
+		shards.forEachShard(shard -> expected[0] += repository.count());
+		LongLongHashMap byCpf = new LongLongHashMap((int) expected[0]);
+		LongLongHashMap byId = new LongLongHashMap((int) expected[0]);
+		shards.forEachShard(shard -> {
+			try (Stream<Object[]> rows = repository.streamCpfs()) {
+				Iterator<Object[]> it = rows.iterator();
+				while (it.hasNext()) {
+					Object[] row = it.next();
+					long cpf = Cpf.toLong((String) row[1]);
+					if (cpf > 0) {
+						byCpf.put(cpf, (Long) row[0]);
+						byId.put((Long) row[0], cpf);
+					}
+				}
+			}
+		});
+		lock.writeLock().lock();
+		try {
+			idByCpf = byCpf;
+			cpfById = byId;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	// Id do cliente com o CPF ja normalizado, ou null
+	public Long findId(String normalizedCpf) {
+		long cpf = Cpf.toLong(normalizedCpf);
+		lock.readLock().lock();
+		try {
+			long id = cpf > 0 ? idByCpf.get(cpf) : LongLongHashMap.MISSING;
+			return id == LongLongHashMap.MISSING ? null : id;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	// Para cada CPF recebido, se existe cliente com ele; CPFs invalidos dao false
+	public Map<String, Boolean> exists(List<String> cpfs) {
+		Map<String, Boolean> result = new LinkedHashMap<>();
+		lock.readLock().lock();
+		try {
+			for (String cpf : cpfs) {
+				String normalized = Cpf.normalize(cpf);
+				result.put(cpf, normalized != null && idByCpf.containsKey(Long.parseLong(normalized)));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return result;
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		if (event.isPartial() && event.getClient().getCpf() == null) {
+			return;
+		}
+		long id = event.getId();
+		lock.writeLock().lock();
+		try {
+			long previous = cpfById.remove(id);
+			if (previous != LongLongHashMap.MISSING && idByCpf.get(previous) == id) {
+				idByCpf.remove(previous);
+			}
+			if (event.getType() != ClientChangedEvent.Type.DELETED) {
+				long cpf = Cpf.toLong(event.getClient().getCpf());
+				if (cpf > 0) {
+					idByCpf.put(cpf, id);
+					cpfById.put(id, cpf);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.iftm.client.services;
+
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+public enum ExportFormat {
+	
+	NDJSON("application/x-ndjson"),
+	CSV("text/csv"),
+	// Sequencia de valores na raiz, sem array envolvendo
+	CBOR("application/cbor"),
+	SMILE("application/x-jackson-smile"),
+	// Mensagem ClientList de client.proto
+	PROTOBUF("application/x-protobuf");
+	
+	private final String mediaType;
+	
+	private ExportFormat(String mediaType) {
+		this.mediaType = mediaType;
+	}
+	
+	public String getMediaType() {
+		return mediaType;
+	}
+	
+	public static ExportFormat of(String name) {
+		for (ExportFormat format : values()) {
+			if (format.name().equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new InvalidRequestException("Invalid export format " + name);
+	}
+
+}
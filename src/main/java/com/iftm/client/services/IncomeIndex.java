@@ -0,0 +1,113 @@
+package com.iftm.client.services;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.sharding.ClientShards;
+import com.iftm.client.util.SortedDoubleColumn;
+
+/*
+ * Indice em memoria da coluna income: carregado uma vez na inicializacao e
+ * mantido pelos eventos de escrita. Contagens por faixa viram buscas binarias
+ * e somas viram diferencas de prefixo. Clientes sem renda ficam de fora.
+ */
+@Component
+public class IncomeIndex {
+	
+	private static final double[] PERCENTILES = { 50, 90, 95, 99 };
+	
+	@Autowired
+	private ClientRepository repository;
+	
+	@Autowired
+	private ClientShards shards;
+	
+	private final Map<Long, Double> incomeById = new ConcurrentHashMap<>();
+	private final SortedDoubleColumn column = new SortedDoubleColumn();
+	
+	@PostConstruct
+	public void load() {
+		shards.forEachShard(shard -> {
+			try (Stream<Object[]> rows = repository.streamIncomes()) {
+				Iterator<Object[]> it = rows.iterator();
+				while (it.hasNext()) {
+					Object[] row = it.next();
+					incomeById.put((Long) row[0], (Double) row[1]);
+				}
+			}
+		});
+		column.reset(incomeById.values().stream().mapToDouble(Double::doubleValue).toArray());
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onClientChanged(ClientChangedEvent event) {
+		if (event.isPartial() && event.getClient().getIncome() == null) {
+			return;
+		}
+		Double previous = event.getType() == ClientChangedEvent.Type.DELETED
+				? incomeById.remove(event.getId())
+				: put(event.getId(), event.getClient().getIncome());
+		if (previous != null) {
+			column.remove(previous);
+		}
+		if (event.getType() != ClientChangedEvent.Type.DELETED && event.getClient().getIncome() != null) {
+			column.add(event.getClient().getIncome());
+		}
+	}
+	
+	private Double put(Long id, Double income) {
+		return income == null ? incomeById.remove(id) : incomeById.put(id, income);
+	}
+	
+	public IncomeStatsDTO stats(Double min, Double max, int buckets) {
+		if (buckets < 1) {
+			throw new InvalidRequestException("buckets must be positive");
+		}
+		if (min != null && max != null && min > max) {
+			throw new InvalidRequestException("min must not be greater than max");
+		}
+		SortedDoubleColumn.Snapshot values = column.snapshot();
+		int from = min == null ? 0 : values.lowerBound(min);
+		int to = max == null ? values.size() : values.upperBound(max);
+		IncomeStatsDTO dto = new IncomeStatsDTO();
+		int count = Math.max(0, to - from);
+		dto.setCount(count);
+		if (count == 0) {
+			return dto;
+		}
+		double sum = values.sum(from, to);
+		double lowest = values.get(from);
+		double highest = values.get(to - 1);
+		dto.setSum(sum);
+		dto.setMin(lowest);
+		dto.setMax(highest);
+		dto.setMean(sum / count);
+		for (double p : PERCENTILES) {
+			int rank = (int) Math.ceil(p / 100.0 * count);
+			dto.getPercentiles().put("p" + (int) p, values.get(from + Math.max(rank, 1) - 1));
+		}
+		double width = (highest - lowest) / buckets;
+		int start = from;
+		for (int i = 0; i < buckets; i++) {
+			double bucketFrom = lowest + i * width;
+			double bucketTo = i == buckets - 1 ? highest : lowest + (i + 1) * width;
+			int end = i == buckets - 1 ? to : Math.min(to, Math.max(start, values.lowerBound(bucketTo)));
+			dto.getHistogram().add(new IncomeStatsDTO.Bucket(bucketFrom, bucketTo, end - start));
+			start = end;
+		}
+		return dto;
+	}
+
+}
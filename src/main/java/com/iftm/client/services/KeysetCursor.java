@@ -0,0 +1,128 @@
+package com.iftm.client.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+/*
+ * Token opaco de continuacao da paginacao por keyset: guarda a coluna de
+ * ordenacao, a direcao e o par (valor, id) do ultimo registro devolvido. Um
+ * valor nulo fica fora do token, que termina no id.
+ */
+public class KeysetCursor {
+
+	public static final String NAME = "name";
+	public static final String INCOME = "income";
+	public static final String BIRTH_DATE = "birthDate";
+
+	private static final String SEPARATOR = ":";
+
+	private final String orderBy;
+	private final Direction direction;
+	private final Long id;
+	private final String value;
+
+	public KeysetCursor(String orderBy, Direction direction, Long id, String value) {
+		this.orderBy = orderBy;
+		this.direction = direction;
+		this.id = id;
+		this.value = value;
+	}
+
+	public static KeysetCursor of(String orderBy, Direction direction, ClientDTO last) {
+		switch (orderBy) {
+		case NAME:
+			return new KeysetCursor(orderBy, direction, last.getId(), last.getName());
+		case INCOME:
+			return new KeysetCursor(orderBy, direction, last.getId(), Objects.toString(last.getIncome(), null));
+		case BIRTH_DATE:
+			return new KeysetCursor(orderBy, direction, last.getId(), Objects.toString(last.getBirthDate(), null));
+		default:
+			throw new InvalidRequestException("Invalid orderBy " + orderBy);
+		}
+	}
+
+	public static void checkOrderBy(String orderBy) {
+		if (!NAME.equals(orderBy) && !INCOME.equals(orderBy) && !BIRTH_DATE.equals(orderBy)) {
+			throw new InvalidRequestException("Invalid orderBy " + orderBy);
+		}
+	}
+
+	public static KeysetCursor decode(String token, String orderBy, Direction direction) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(SEPARATOR, 4);
+			KeysetCursor cursor = new KeysetCursor(parts[0], Direction.valueOf(parts[1]), Long.valueOf(parts[2]),
+					parts.length > 3 ? parts[3] : null);
+			if (!cursor.orderBy.equals(orderBy) || cursor.direction != direction) {
+				throw new InvalidRequestException("Cursor does not match orderBy/direction");
+			}
+			return cursor;
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new InvalidRequestException("Invalid cursor");
+		}
+	}
+
+	public String encode() {
+		String raw = orderBy + SEPARATOR + direction.name() + SEPARATOR + id
+				+ (value == null ? "" : SEPARATOR + value);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String getOrderBy() {
+		return orderBy;
+	}
+
+	public Direction getDirection() {
+		return direction;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	// Valor da coluna de ordenacao no tipo dela, ou null
+	public Object getValue() {
+		switch (orderBy) {
+		case INCOME:
+			return getIncome();
+		case BIRTH_DATE:
+			return getBirthDate();
+		default:
+			return getName();
+		}
+	}
+
+	public String getName() {
+		return value;
+	}
+
+	public Double getIncome() {
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Double.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new InvalidRequestException("Invalid cursor");
+		}
+	}
+
+	public Instant getBirthDate() {
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Instant.parse(value);
+		} catch (RuntimeException e) {
+			throw new InvalidRequestException("Invalid cursor");
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.iftm.client.services;
+
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.iftm.client.datasource.ReadYourWrites;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.util.SingleFlight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Leituras identicas e simultaneas de ClientService dividem uma unica ida ao
+ * banco: findById pela chave id (so com o ClientCache desligado; ligado, o
+ * Caffeine ja faz isso) e findAllPaged pelo PageRequest (pagina, tamanho e
+ * ordenacao). Depois do commit de uma escrita os voos em andamento
+ * sao esquecidos, para que quem le depois de escrever nao receba uma leitura
+ * iniciada antes do commit. Dentro de uma transacao ou de ReadYourWrites a
+ * leitura nao e compartilhada: ela precisa enxergar as escritas da propria sessao.
+ * Como no ClientCache, cada chamada recebe sua propria copia dos ClientDTO.
+ */
+@Component
+public class ReadCoalescer {
+
+	private final SingleFlight<Long, ClientDTO> byId = new SingleFlight<>();
+	private final SingleFlight<PageRequest, Page<ClientDTO>> pages = new SingleFlight<>();
+
+	public ReadCoalescer(MeterRegistry registry) {
+		FunctionCounter.builder("client.reads.coalesced", byId, SingleFlight::joined)
+				.tag("query", "findById").register(registry);
+		FunctionCounter.builder("client.reads.coalesced", pages, SingleFlight::joined)
+				.tag("query", "findAllPaged").register(registry);
+	}
+
+	public ClientDTO findById(Long id, Supplier<ClientDTO> loader) {
+		return execute(byId, id, loader, ClientDTO::new);
+	}
+
+	public Page<ClientDTO> findAllPaged(PageRequest pageRequest, Supplier<Page<ClientDTO>> loader) {
+		return execute(pages, pageRequest, loader, page -> page.map(ClientDTO::new));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		byId.forget(event.getId());
+		pages.forgetAll();
+	}
+
+	// O resultado do voo e o mesmo objeto para todas as chamadas; nenhuma delas o
+	// recebe, so a copia
+	private static <K, V> V execute(SingleFlight<K, V> flights, K key, Supplier<V> loader, UnaryOperator<V> copy) {
+		if (TransactionSynchronizationManager.isActualTransactionActive() || ReadYourWrites.isActive()) {
+			return loader.get();
+		}
+		return copy.apply(flights.execute(key, loader));
+	}
+
+}
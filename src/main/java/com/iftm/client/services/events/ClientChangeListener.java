@@ -0,0 +1,22 @@
+package com.iftm.client.services.events;
+
+import java.util.List;
+
+import com.iftm.client.dto.ClientChangeDTO;
+
+/*
+ * Consumidor em processo do feed de alteracoes (ClientChangeFeed.subscribe).
+ * Recebe lotes em ordem de position, sem repeticoes; uma excecao cancela a
+ * inscricao.
+ */
+@FunctionalInterface
+public interface ClientChangeListener {
+	
+	void onChanges(List<ClientChangeDTO> changes) throws Exception;
+	
+	// As alteracoes apos position ja foram removidas do outbox pela retencao; a
+	// inscricao ja esta cancelada
+	default void onPurged(long position) throws Exception {
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.iftm.client.services.events;
+
+import com.iftm.client.dto.ClientDTO;
+
+public class ClientChangedEvent {
+	
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+	
+	private final Type type;
+	private final Long id;
+	private final ClientDTO client;
+	private final boolean partial;
+	
+	public ClientChangedEvent(Type type, Long id, ClientDTO client, boolean partial) {
+		this.type = type;
+		this.id = id;
+		this.client = client;
+		this.partial = partial;
+	}
+	
+	public static ClientChangedEvent created(ClientDTO client) {
+		return new ClientChangedEvent(Type.CREATED, client.getId(), client, false);
+	}
+	
+	public static ClientChangedEvent updated(ClientDTO client) {
+		return new ClientChangedEvent(Type.UPDATED, client.getId(), client, false);
+	}
+	
+	public static ClientChangedEvent patched(ClientDTO changes) {
+		return new ClientChangedEvent(Type.UPDATED, changes.getId(), changes, true);
+	}
+	
+	public static ClientChangedEvent deleted(Long id) {
+		return new ClientChangedEvent(Type.DELETED, id, null, false);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	// Estado gravado do cliente; nulo quando o evento e de exclusao
+	public ClientDTO getClient() {
+		return client;
+	}
+
+	// Em atualizacoes parciais, client traz apenas os campos alterados (os demais
+	// ficam nulos)
+	public boolean isPartial() {
+		return partial;
+	}
+
+}
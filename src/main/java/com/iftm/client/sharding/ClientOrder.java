@@ -0,0 +1,80 @@
+package com.iftm.client.sharding;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Comparadores equivalentes ao ORDER BY gerado para um Sort de clientes, usados
+ * para intercalar as paginas vindas de cada shard. Nulos seguem o padrao do H2
+ * (menores que qualquer valor) salvo NullHandling explicito, e o id desempata,
+ * para que a ordem global seja total.
+ */
+public final class ClientOrder {
+	
+	private static final Map<String, Function<ClientDTO, Comparable<?>>> PROPERTIES = Map.of(
+			"id", ClientDTO::getId,
+			"name", ClientDTO::getName,
+			"cpf", ClientDTO::getCpf,
+			"income", ClientDTO::getIncome,
+			"birthDate", ClientDTO::getBirthDate,
+			"children", ClientDTO::getChildren,
+			"version", ClientDTO::getVersion);
+	
+	private ClientOrder() {
+	}
+	
+	public static Comparator<ClientDTO> of(Sort sort) {
+		return build(sort, property -> {
+			Function<ClientDTO, Comparable<?>> getter = PROPERTIES.get(property);
+			if (getter == null) {
+				throw new IllegalArgumentException("Unknown property " + property);
+			}
+			return getter;
+		});
+	}
+	
+	// Linhas de findAllFields: o Map precisa trazer as propriedades do Sort e o id
+	public static Comparator<Map<String, Object>> ofFields(Sort sort) {
+		return build(sort, property -> row -> (Comparable<?>) row.get(property));
+	}
+	
+	private static <T> Comparator<T> build(Sort sort, Function<String, Function<T, Comparable<?>>> getters) {
+		Comparator<T> result = null;
+		boolean byId = false;
+		for (Sort.Order order : sort) {
+			Comparator<T> next = compare(getters.apply(order.getProperty()), order);
+			result = result == null ? next : result.thenComparing(next);
+			byId |= order.getProperty().equals("id");
+		}
+		if (!byId) {
+			Comparator<T> id = compare(getters.apply("id"), Sort.Order.asc("id"));
+			result = result == null ? id : result.thenComparing(id);
+		}
+		return result;
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <T> Comparator<T> compare(Function<T, Comparable<?>> getter, Sort.Order order) {
+		boolean asc = order.isAscending();
+		boolean nullsFirst;
+		switch (order.getNullHandling()) {
+		case NULLS_FIRST:
+			nullsFirst = true;
+			break;
+		case NULLS_LAST:
+			nullsFirst = false;
+			break;
+		default:
+			nullsFirst = asc;
+		}
+		Comparator<Comparable> values = asc ? Comparator.naturalOrder() : Comparator.reverseOrder();
+		Comparator<Comparable> withNulls = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+		return (a, b) -> withNulls.compare(getter.apply(a), getter.apply(b));
+	}
+	
+}
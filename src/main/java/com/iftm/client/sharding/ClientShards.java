@@ -0,0 +1,248 @@
+package com.iftm.client.sharding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.util.Cpf;
+import com.iftm.client.util.SortedMerge;
+
+/*
+ * Acesso aos shards de clientes. Um cliente novo vai para o shard do hash do
+ * CPF (sem CPF, rodizio); dai em diante o shard sai do id (ShardIds). Leituras
+ * sem chave rodam em paralelo em todos os shards (scatter-gather) e as paginas
+ * ordenadas sao intercaladas. Sem client.sharding.enabled ha um unico shard e
+ * cada operacao e apenas a transacao de antes.
+ */
+@Component
+public class ClientShards {
+	
+	private final PlatformTransactionManager transactionManager;
+	private final ThreadPoolTaskExecutor executor;
+	private final int count;
+	private final int maxResultWindow;
+	private final AtomicInteger nextWithoutCpf = new AtomicInteger();
+	
+	public ClientShards(PlatformTransactionManager transactionManager, ObjectProvider<ShardDataSources> shards,
+			@ShardExecutor ObjectProvider<ThreadPoolTaskExecutor> executor,
+			@Value("${client.sharding.max-result-window}") int maxResultWindow) {
+		this.transactionManager = transactionManager;
+		this.executor = executor.getIfAvailable();
+		ShardDataSources dataSources = shards.getIfAvailable();
+		this.count = dataSources == null ? 1 : dataSources.count();
+		this.maxResultWindow = maxResultWindow;
+	}
+	
+	public int count() {
+		return count;
+	}
+	
+	public boolean isSharded() {
+		return count > 1;
+	}
+	
+	// Shard do id, ou -1 se o id nao pode existir em nenhum shard
+	public int shardOf(Long id) {
+		int shard = ShardIds.shardOf(id);
+		return shard < count ? shard : -1;
+	}
+	
+	// Shard de um cliente novo; o mesmo CPF, formatado ou nao, cai sempre no mesmo shard
+	public int shardForCpf(String cpf) {
+		if (count == 1) {
+			return 0;
+		}
+		if (cpf == null) {
+			return Math.floorMod(nextWithoutCpf.getAndIncrement(), count);
+		}
+		return Math.floorMod(Cpf.strip(cpf).hashCode(), count);
+	}
+	
+	// Itens agrupados por shard (uma lista por indice); itens com shard -1 ficam de fora
+	public <T> List<List<T>> partition(Collection<T> items, ToIntFunction<? super T> shardOf) {
+		List<List<T>> parts = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			parts.add(new ArrayList<>());
+		}
+		for (T item : items) {
+			int shard = shardOf.applyAsInt(item);
+			if (shard >= 0) {
+				parts.get(shard).add(item);
+			}
+		}
+		return parts;
+	}
+	
+	// Aplica action a parte de items de cada shard, que devolve um resultado por
+	// item; os resultados voltam na ordem de items
+	public <T, R> List<R> mapByShard(List<T> items, ToIntFunction<? super T> shardOf,
+			BiFunction<Integer, List<T>, List<R>> action) {
+		List<Integer> positions = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			positions.add(i);
+		}
+		Object[] results = new Object[items.size()];
+		List<List<Integer>> parts = partition(positions, i -> shardOf.applyAsInt(items.get(i)));
+		for (int shard = 0; shard < parts.size(); shard++) {
+			List<Integer> part = parts.get(shard);
+			if (part.isEmpty()) {
+				continue;
+			}
+			List<T> values = new ArrayList<>(part.size());
+			for (Integer i : part) {
+				values.add(items.get(i));
+			}
+			List<R> partResults = action.apply(shard, values);
+			for (int i = 0; i < part.size(); i++) {
+				results[part.get(i)] = partResults.get(i);
+			}
+		}
+		@SuppressWarnings("unchecked")
+		List<R> result = (List<R>) Arrays.asList(results);
+		return result;
+	}
+	
+	// Executa action em uma transacao no shard; dentro de uma transacao ja aberta
+	// participa dela, o que so e permitido se ela for do mesmo shard
+	public <T> T inShard(int shard, boolean readOnly, Supplier<T> action) {
+		if (isSharded() && TransactionSynchronizationManager.isActualTransactionActive()
+				&& ShardContext.current() != shard) {
+			throw new IllegalStateException("Transaction on shard " + ShardContext.current()
+					+ " cannot access shard " + shard);
+		}
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		tx.setReadOnly(readOnly);
+		Integer previous = ShardContext.set(shard);
+		try {
+			return tx.execute(status -> action.get());
+		} finally {
+			ShardContext.restore(previous);
+		}
+	}
+	
+	// Executa query somente leitura em todos os shards em paralelo; resultados na ordem dos shards
+	public <T> List<T> scatter(IntFunction<T> query) {
+		if (!isSharded()) {
+			return List.of(inShard(0, true, () -> query.apply(0)));
+		}
+		List<CompletableFuture<T>> futures = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int shard = i;
+			futures.add(CompletableFuture.supplyAsync(() -> inShard(shard, true, () -> query.apply(shard)), executor));
+		}
+		List<T> results = new ArrayList<>(count);
+		for (CompletableFuture<T> future : futures) {
+			try {
+				results.add(future.join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+		}
+		return results;
+	}
+	
+	// Percorre os shards um a um, na ordem, cada um na sua transacao somente leitura
+	public void forEachShard(IntConsumer action) {
+		for (int i = 0; i < count; i++) {
+			int shard = i;
+			inShard(shard, true, () -> {
+				action.accept(shard);
+				return null;
+			});
+		}
+	}
+	
+	// Resultado de um finder em todos os shards, concatenado na ordem dos shards
+	public <T> List<T> findAll(IntFunction<List<T>> finder) {
+		List<T> result = new ArrayList<>();
+		for (List<T> part : scatter(finder)) {
+			result.addAll(part);
+		}
+		return result;
+	}
+	
+	// Pagina global: cada shard devolve as offset + size primeiras linhas na ordem
+	// pedida, que sao intercaladas; o total e a soma dos totais. O custo cresce com
+	// o offset, por isso ha um limite (client.sharding.max-result-window)
+	public <T> Page<T> findPage(Pageable pageable, Function<Pageable, Page<T>> query, Comparator<? super T> order) {
+		if (!isSharded()) {
+			return inShard(0, true, () -> query.apply(pageable));
+		}
+		Pageable top = topOf(pageable);
+		List<Page<T>> pages = scatter(shard -> query.apply(top));
+		long total = 0;
+		List<List<T>> contents = new ArrayList<>(pages.size());
+		for (Page<T> page : pages) {
+			total += page.getTotalElements();
+			contents.add(page.getContent());
+		}
+		return new PageImpl<>(SortedMerge.merge(contents, order, pageable.getOffset(), pageable.getPageSize()),
+				pageable, total);
+	}
+	
+	public <T> Slice<T> findSlice(Pageable pageable, Function<Pageable, Slice<T>> query, Comparator<? super T> order) {
+		if (!isSharded()) {
+			return inShard(0, true, () -> query.apply(pageable));
+		}
+		Pageable top = topOf(pageable);
+		List<Slice<T>> slices = scatter(shard -> query.apply(top));
+		boolean hasNext = false;
+		int rows = 0;
+		List<List<T>> contents = new ArrayList<>(slices.size());
+		for (Slice<T> slice : slices) {
+			hasNext |= slice.hasNext();
+			rows += slice.getNumberOfElements();
+			contents.add(slice.getContent());
+		}
+		List<T> content = SortedMerge.merge(contents, order, pageable.getOffset(), pageable.getPageSize());
+		return new SliceImpl<>(content, pageable, hasNext || rows > pageable.getOffset() + content.size());
+	}
+	
+	private Pageable topOf(Pageable pageable) {
+		long window = pageable.getOffset() + pageable.getPageSize();
+		if (window > maxResultWindow) {
+			throw new InvalidRequestException("(page + 1) * linesPerPage must not exceed " + maxResultWindow
+					+ " when clients are sharded; use keyset pagination");
+		}
+		// Com o id desempatando, o topo de cada shard e um prefixo da ordem usada na intercalacao
+		Sort sort = pageable.getSort();
+		if (sort.getOrderFor("id") == null) {
+			sort = sort.and(Sort.by("id"));
+		}
+		return PageRequest.of(0, (int) window, sort);
+	}
+	
+}
@@ -0,0 +1,28 @@
+package com.iftm.client.sharding;
+
+import java.io.Serializable;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/*
+ * Gerador de ids por sequencia (mesmos parametros de SequenceStyleGenerator)
+ * que codifica o shard da sessao no id com ShardIds. Cada shard tem a sua
+ * sequencia, e o otimizador pooled-lo do Hibernate guarda o estado por tenant,
+ * entao os blocos reservados em um shard nunca sao usados em outro. Sem
+ * multi-tenancy (tenant null) os ids sao os da sequencia.
+ */
+public class ShardAwareIdGenerator extends SequenceStyleGenerator {
+	
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+		Serializable value = super.generate(session, object);
+		String tenant = session.getTenantIdentifier();
+		if (tenant == null) {
+			return value;
+		}
+		return ShardIds.encode(Integer.parseInt(tenant), ((Number) value).longValue());
+	}
+	
+}
@@ -0,0 +1,37 @@
+package com.iftm.client.sharding;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+
+/*
+ * Conexoes do tenant (shard) da sessao. Metadados e validacao do schema usam o
+ * shard 0; todos os shards recebem as mesmas migracoes.
+ */
+public class ShardConnectionProvider extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final transient List<DataSource> shards;
+	
+	public ShardConnectionProvider(List<DataSource> shards) {
+		this.shards = shards;
+	}
+	
+	@Override
+	protected DataSource selectAnyDataSource() {
+		return shards.get(0);
+	}
+	
+	@Override
+	protected DataSource selectDataSource(String tenantIdentifier) {
+		int shard = Integer.parseInt(tenantIdentifier);
+		if (shard < 0 || shard >= shards.size()) {
+			throw new IllegalArgumentException("Unknown shard " + tenantIdentifier);
+		}
+		return shards.get(shard);
+	}
+	
+}
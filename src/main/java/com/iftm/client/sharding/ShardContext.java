@@ -0,0 +1,35 @@
+package com.iftm.client.sharding;
+
+/*
+ * Shard da thread atual. Lido pelo ShardTenantResolver quando o Hibernate abre
+ * uma sessao, isto e, no inicio da transacao: precisa estar definido antes dela.
+ * Sem shard definido vale o shard 0.
+ */
+public final class ShardContext {
+	
+	private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+	
+	private ShardContext() {
+	}
+	
+	public static int current() {
+		Integer shard = CURRENT.get();
+		return shard == null ? 0 : shard;
+	}
+	
+	// Define o shard e devolve o anterior (ou null), para ser restaurado com restore
+	public static Integer set(int shard) {
+		Integer previous = CURRENT.get();
+		CURRENT.set(shard);
+		return previous;
+	}
+	
+	public static void restore(Integer previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+	
+}
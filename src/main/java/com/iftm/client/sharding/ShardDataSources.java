@@ -0,0 +1,44 @@
+package com.iftm.client.sharding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * DataSources dos shards, na ordem dos indices. O shard 0 e o DataSource da
+ * aplicacao (spring.datasource.*); os demais sao pools proprios, fechados junto
+ * com o contexto.
+ */
+public class ShardDataSources implements AutoCloseable {
+	
+	private final List<DataSource> shards;
+	
+	public ShardDataSources(List<DataSource> shards) {
+		if (shards.isEmpty() || shards.size() > ShardIds.MAX_SHARDS) {
+			throw new IllegalArgumentException("Shard count must be between 1 and " + ShardIds.MAX_SHARDS);
+		}
+		this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+	}
+	
+	public List<DataSource> getShards() {
+		return shards;
+	}
+	
+	public int count() {
+		return shards.size();
+	}
+	
+	@Override
+	public void close() {
+		for (int i = 1; i < shards.size(); i++) {
+			if (shards.get(i) instanceof HikariDataSource) {
+				((HikariDataSource) shards.get(i)).close();
+			}
+		}
+	}
+	
+}
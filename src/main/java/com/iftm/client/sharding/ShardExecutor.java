@@ -0,0 +1,20 @@
+package com.iftm.client.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+/*
+ * Pool das consultas espalhadas pelos shards (ClientShards.scatter). Injetado
+ * somente com este qualificador: nao e o executor de requisicoes
+ * (clientExecutor) nem o do MVC async (applicationTaskExecutor).
+ */
+@Target({ ElementType.METHOD, ElementType.PARAMETER, ElementType.FIELD })
+@Retention(RetentionPolicy.RUNTIME)
+@Qualifier
+public @interface ShardExecutor {
+
+}
@@ -0,0 +1,31 @@
+package com.iftm.client.sharding;
+
+/*
+ * Ids globais de clientes particionados: os 48 bits baixos vem da sequencia do
+ * shard e os bits acima guardam o indice do shard, entao o shard de um id sai
+ * do proprio id. O shard 0 gera os mesmos ids de antes do particionamento e,
+ * com ate MAX_SHARDS shards, os ids continuam abaixo de 2^53 (exatos em JSON).
+ */
+public final class ShardIds {
+	
+	public static final int SHIFT = 48;
+	public static final int MAX_SHARDS = 32;
+	
+	private static final long SEQUENCE_MASK = (1L << SHIFT) - 1;
+	
+	private ShardIds() {
+	}
+	
+	public static long encode(int shard, long sequence) {
+		if (sequence < 0 || sequence > SEQUENCE_MASK) {
+			throw new IllegalStateException("Sequence value " + sequence + " does not fit in " + SHIFT + " bits");
+		}
+		return ((long) shard << SHIFT) | sequence;
+	}
+	
+	// Indice do shard codificado no id; ids negativos dao um valor fora de qualquer faixa
+	public static int shardOf(long id) {
+		return id < 0 ? Integer.MAX_VALUE : (int) (id >>> SHIFT);
+	}
+	
+}
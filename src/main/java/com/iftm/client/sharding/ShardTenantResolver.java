@@ -0,0 +1,21 @@
+package com.iftm.client.sharding;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/*
+ * Multi-tenancy DATABASE do Hibernate com um tenant por shard: o identificador
+ * e o indice do shard ("0", "1", ...), tirado do ShardContext.
+ */
+public class ShardTenantResolver implements CurrentTenantIdentifierResolver {
+	
+	@Override
+	public String resolveCurrentTenantIdentifier() {
+		return Integer.toString(ShardContext.current());
+	}
+	
+	@Override
+	public boolean validateExistingCurrentSessions() {
+		return false;
+	}
+	
+}
@@ -0,0 +1,37 @@
+package com.iftm.client.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+
+public final class BirthDates {
+
+	private BirthDates() {
+	}
+
+	// Forma usada na coluna birth_month_day: mes * 100 + dia, em UTC (23/12 -> 1223)
+	public static Integer monthDay(Instant birthDate) {
+		if (birthDate == null) {
+			return null;
+		}
+		LocalDate date = birthDate.atZone(ZoneOffset.UTC).toLocalDate();
+		return toInt(MonthDay.from(date));
+	}
+
+	public static Integer year(Instant birthDate) {
+		return birthDate == null ? null : birthDate.atZone(ZoneOffset.UTC).getYear();
+	}
+
+	public static int toInt(MonthDay monthDay) {
+		return monthDay.getMonthValue() * 100 + monthDay.getDayOfMonth();
+	}
+
+	// Maior birth_month_day comemorado na data: em ano nao bissexto quem nasceu em
+	// 29/02 comemora (e completa idade) em 28/02, como MonthDay.atYear
+	public static int celebratedOn(LocalDate date) {
+		int monthDay = toInt(MonthDay.from(date));
+		return monthDay == 228 && !date.isLeapYear() ? 229 : monthDay;
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.iftm.client.util;
+
+public final class Cpf {
+
+	private static final int LENGTH = 11;
+
+	private Cpf() {
+	}
+
+	// Apenas os digitos do CPF ("123.456.789-09" -> "12345678909"); devolve null se
+	// a quantidade de digitos ou os digitos verificadores nao conferem
+	public static String normalize(String cpf) {
+		if (cpf == null) {
+			return null;
+		}
+		String digits = digits(cpf);
+		return digits != null && hasValidCheckDigits(digits) ? digits : null;
+	}
+
+	// Forma gravada no banco: so os digitos, sem validar quantidade nem verificadores,
+	// para que o CPF formatado e o sem formatacao sejam o mesmo valor
+	public static String strip(String cpf) {
+		if (cpf == null) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder(LENGTH);
+		for (int i = 0; i < cpf.length(); i++) {
+			char c = cpf.charAt(i);
+			if (c >= '0' && c <= '9') {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	// Chave numerica usada pelo indice de CPF; -1 quando o texto nao tem 11 digitos
+	public static long toLong(String cpf) {
+		String digits = cpf == null ? null : digits(cpf);
+		return digits == null ? -1 : Long.parseLong(digits);
+	}
+
+	private static String digits(String cpf) {
+		StringBuilder sb = new StringBuilder(LENGTH);
+		for (int i = 0; i < cpf.length(); i++) {
+			char c = cpf.charAt(i);
+			if (c >= '0' && c <= '9') {
+				sb.append(c);
+			} else if (c != '.' && c != '-' && c != ' ') {
+				return null;
+			}
+		}
+		return sb.length() == LENGTH ? sb.toString() : null;
+	}
+
+	private static boolean hasValidCheckDigits(String digits) {
+		boolean repeated = true;
+		for (int i = 1; i < LENGTH; i++) {
+			repeated &= digits.charAt(i) == digits.charAt(0);
+		}
+		return !repeated && checkDigit(digits, 9) == digits.charAt(9) - '0'
+				&& checkDigit(digits, 10) == digits.charAt(10) - '0';
+	}
+
+	private static int checkDigit(String digits, int length) {
+		int sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += (digits.charAt(i) - '0') * (length + 1 - i);
+		}
+		return sum * 10 % 11 % 10;
+	}
+
+}
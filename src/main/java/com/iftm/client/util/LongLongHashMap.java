@@ -0,0 +1,136 @@
+package com.iftm.client.util;
+
+import java.util.Arrays;
+
+/*
+ * Mapa long -> long em enderecamento aberto (sondagem linear) sobre dois arrays
+ * primitivos: sem boxing nem um objeto por entrada. As chaves devem ser
+ * positivas (0 marca posicao livre). Nao e thread-safe.
+ */
+public class LongLongHashMap {
+
+	public static final long MISSING = -1L;
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private long[] values;
+	private int size;
+	private int mask;
+	private int resizeAt;
+
+	public LongLongHashMap(int expectedSize) {
+		allocate(Math.max(16, Integer.highestOneBit(Math.max(1, (int) (expectedSize / LOAD_FACTOR))) << 1));
+	}
+
+	public long get(long key) {
+		int slot = slot(key);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return MISSING;
+	}
+
+	public boolean containsKey(long key) {
+		return get(key) != MISSING;
+	}
+
+	// Devolve o valor anterior da chave, ou MISSING
+	public long put(long key, long value) {
+		if (key <= 0) {
+			throw new IllegalArgumentException("Key must be positive: " + key);
+		}
+		int slot = slot(key);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				long previous = values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return MISSING;
+	}
+
+	// Remocao com deslocamento para tras: as entradas seguintes do mesmo cluster
+	// voltam para perto da posicao ideal, sem marcadores de remocao
+	public long remove(long key) {
+		int slot = slot(key);
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				long previous = values[slot];
+				shiftBack(slot);
+				size--;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return MISSING;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		size = 0;
+	}
+
+	private void shiftBack(int gap) {
+		int slot = gap;
+		while (true) {
+			slot = (slot + 1) & mask;
+			long key = keys[slot];
+			if (key == 0) {
+				break;
+			}
+			int ideal = slot(key);
+			// A entrada pode ocupar a lacuna se a posicao ideal dela nao estiver
+			// entre a lacuna (exclusive) e a posicao atual (inclusive)
+			if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+				keys[gap] = key;
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = 0;
+	}
+
+	private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slot(oldKeys[i]);
+				while (keys[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+}
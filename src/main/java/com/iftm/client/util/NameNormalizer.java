@@ -0,0 +1,37 @@
+package com.iftm.client.util;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class NameNormalizer {
+
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+	private NameNormalizer() {
+	}
+
+	// Forma usada na coluna name_normalized: sem acentos e em minusculas
+	public static String normalize(String name) {
+		if (name == null) {
+			return null;
+		}
+		String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+		return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	// Trechos de 3 caracteres de um nome ja normalizado (tb_client_name_trigram):
+	// um nome que contem o termo contem todos os trigramas do termo
+	public static Set<String> trigrams(String normalized) {
+		Set<String> trigrams = new LinkedHashSet<>();
+		if (normalized != null) {
+			for (int i = 0; i + 3 <= normalized.length(); i++) {
+				trigrams.add(normalized.substring(i, i + 3));
+			}
+		}
+		return trigrams;
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.iftm.client.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * Coalescencia de chamadas identicas em andamento ("single flight"): a primeira
+ * chamada de uma chave executa o loader e as que chegam enquanto ela roda
+ * esperam o mesmo resultado (ou a mesma excecao). A chave sai do mapa assim que
+ * o loader termina, com sucesso ou erro; nada fica guardado depois disso.
+ */
+public class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder joined = new LongAdder();
+
+	public V execute(K key, Supplier<V> loader) {
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+		if (existing != null) {
+			joined.increment();
+			return join(existing);
+		}
+		try {
+			V value = loader.get();
+			flight.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, flight);
+		}
+	}
+
+	// Chamadas seguintes da chave abrem um novo voo; as que ja esperam o atual continuam nele
+	public void forget(K key) {
+		inFlight.remove(key);
+	}
+
+	public void forgetAll() {
+		inFlight.clear();
+	}
+
+	public int inFlight() {
+		return inFlight.size();
+	}
+
+	// Chamadas atendidas pelo voo de outra
+	public long joined() {
+		return joined.sum();
+	}
+
+	private static <V> V join(CompletableFuture<V> flight) {
+		try {
+			return flight.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.iftm.client.util;
+
+import java.util.Arrays;
+
+/*
+ * Coluna de doubles mantida ordenada, com somas de prefixo. As escritas apenas
+ * acumulam valores incluidos/removidos; a proxima leitura intercala o delta no
+ * array ordenado em O(n + k log k). As leituras usam um snapshot imutavel.
+ */
+public class SortedDoubleColumn {
+
+	private volatile Snapshot snapshot = new Snapshot(new double[0]);
+
+	private volatile boolean dirty;
+
+	private double[] added = new double[16];
+	private int addedCount;
+	private double[] removed = new double[16];
+	private int removedCount;
+
+	public synchronized void add(double value) {
+		added = ensureCapacity(added, addedCount);
+		added[addedCount++] = value;
+		dirty = true;
+	}
+
+	// So deve remover valores que foram incluidos antes
+	public synchronized void remove(double value) {
+		removed = ensureCapacity(removed, removedCount);
+		removed[removedCount++] = value;
+		dirty = true;
+	}
+
+	public synchronized void reset(double[] values) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		addedCount = 0;
+		removedCount = 0;
+		dirty = false;
+		snapshot = new Snapshot(sorted);
+	}
+
+	public Snapshot snapshot() {
+		if (!dirty) {
+			return snapshot;
+		}
+		synchronized (this) {
+			if (dirty) {
+				snapshot = new Snapshot(merge(snapshot.values));
+				addedCount = 0;
+				removedCount = 0;
+				dirty = false;
+			}
+			return snapshot;
+		}
+	}
+
+	private double[] merge(double[] sorted) {
+		Arrays.sort(added, 0, addedCount);
+		Arrays.sort(removed, 0, removedCount);
+		double[] merged = new double[sorted.length + addedCount];
+		int i = 0, a = 0, r = 0, m = 0;
+		while (i < sorted.length || a < addedCount) {
+			double next;
+			if (a >= addedCount || (i < sorted.length && sorted[i] <= added[a])) {
+				next = sorted[i++];
+			} else {
+				next = added[a++];
+			}
+			while (r < removedCount && removed[r] < next) {
+				r++;
+			}
+			if (r < removedCount && removed[r] == next) {
+				r++;
+				continue;
+			}
+			merged[m++] = next;
+		}
+		return m == merged.length ? merged : Arrays.copyOf(merged, m);
+	}
+
+	private static double[] ensureCapacity(double[] array, int count) {
+		return count < array.length ? array : Arrays.copyOf(array, array.length * 2);
+	}
+
+	public static class Snapshot {
+
+		private final double[] values;
+		private final double[] prefix;
+
+		private Snapshot(double[] values) {
+			this.values = values;
+			this.prefix = new double[values.length + 1];
+			for (int i = 0; i < values.length; i++) {
+				prefix[i + 1] = prefix[i] + values[i];
+			}
+		}
+
+		public int size() {
+			return values.length;
+		}
+
+		public double get(int index) {
+			return values[index];
+		}
+
+		// Primeiro indice com valor >= value
+		public int lowerBound(double value) {
+			int lo = 0, hi = values.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (values[mid] < value) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+		// Primeiro indice com valor > value
+		public int upperBound(double value) {
+			int lo = 0, hi = values.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (values[mid] <= value) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+		// Soma dos valores no intervalo de indices [from, to)
+		public double sum(int from, int to) {
+			return prefix[to] - prefix[from];
+		}
+
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.iftm.client.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ * Intercalacao de k listas ja ordenadas pelo mesmo comparador: um heap com a
+ * cabeca de cada lista produz a ordem global em O(n log k). Pula offset itens
+ * e devolve no maximo limit.
+ */
+public final class SortedMerge {
+	
+	private SortedMerge() {
+	}
+	
+	public static <T> List<T> merge(List<? extends List<? extends T>> sorted, Comparator<? super T> order,
+			long offset, int limit) {
+		PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+				(a, b) -> order.compare(a.value, b.value));
+		for (List<? extends T> list : sorted) {
+			Iterator<? extends T> it = list.iterator();
+			if (it.hasNext()) {
+				heads.add(new Head<>(it.next(), it));
+			}
+		}
+		List<T> result = new ArrayList<>(Math.max(0, limit));
+		long skipped = 0;
+		while (result.size() < limit && !heads.isEmpty()) {
+			Head<T> head = heads.poll();
+			if (skipped < offset) {
+				skipped++;
+			} else {
+				result.add(head.value);
+			}
+			if (head.rest.hasNext()) {
+				heads.add(new Head<>(head.rest.next(), head.rest));
+			}
+		}
+		return result;
+	}
+	
+	private static final class Head<T> {
+		
+		private final T value;
+		private final Iterator<? extends T> rest;
+		
+		private Head(T value, Iterator<? extends T> rest) {
+			this.value = value;
+			this.rest = rest;
+		}
+		
+	}
+	
+}
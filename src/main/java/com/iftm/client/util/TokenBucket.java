@@ -0,0 +1,40 @@
+package com.iftm.client.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket sem lock no formato GCRA: o estado inteiro e o instante teorico
+ * de chegada (TAT) em um AtomicLong, atualizado por CAS. Equivale a um balde de
+ * "burst" fichas reabastecido a "permitsPerSecond", sem alocar por chamada.
+ */
+public class TokenBucket {
+
+	private final long interval;
+	private final long tolerance;
+	private final AtomicLong theoreticalArrival;
+
+	public TokenBucket(double permitsPerSecond, int burst, long now) {
+		if (permitsPerSecond <= 0 || burst < 1) {
+			throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+		}
+		this.interval = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+		this.tolerance = (burst - 1) * interval;
+		this.theoreticalArrival = new AtomicLong(now);
+	}
+
+	// 0 se a ficha foi consumida; senao nanos ate a proxima ficha
+	public long tryAcquire(long now) {
+		for (;;) {
+			long current = theoreticalArrival.get();
+			long base = Math.max(current, now);
+			long wait = base - now - tolerance;
+			if (wait > 0) {
+				return wait;
+			}
+			if (theoreticalArrival.compareAndSet(current, base + interval)) {
+				return 0;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import com.iftm.client.util.BirthDates;
+
+/*
+ * Preenche birth_month_day e birth_year a partir de birth_date. Feito em Java para
+ * converter o TIMESTAMP da mesma forma que o Hibernate (fuso da JVM -> Instant ->
+ * UTC), o que as funcoes de data do banco nao garantem.
+ */
+public class V3__Backfill_birth_columns extends BaseJavaMigration {
+
+	private static final int BATCH_SIZE = 500;
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		Connection connection = context.getConnection();
+		try (Statement select = connection.createStatement();
+				ResultSet rows = select.executeQuery(
+						"SELECT id, birth_date FROM tb_client WHERE birth_date IS NOT NULL");
+				PreparedStatement update = connection.prepareStatement(
+						"UPDATE tb_client SET birth_month_day = ?, birth_year = ? WHERE id = ?")) {
+			int pending = 0;
+			while (rows.next()) {
+				Instant birthDate = rows.getTimestamp(2).toInstant();
+				update.setInt(1, BirthDates.monthDay(birthDate));
+				update.setInt(2, BirthDates.year(birthDate));
+				update.setLong(3, rows.getLong(1));
+				update.addBatch();
+				if (++pending == BATCH_SIZE) {
+					update.executeBatch();
+					pending = 0;
+				}
+			}
+			if (pending > 0) {
+				update.executeBatch();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+-- Mesmo incremento do gerador pooled-lo de Client.id
+CREATE SEQUENCE tb_client_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tb_client (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    name_normalized VARCHAR(255),
+    cpf VARCHAR(255),
+    income DOUBLE,
+    birth_date TIMESTAMP,
+    children INTEGER,
+    version BIGINT,
+    CONSTRAINT pk_client PRIMARY KEY (id),
+    CONSTRAINT uk_client_cpf UNIQUE (cpf)
+);
+
+-- Busca por nome exato/prefixo (findByNameIgnoreCase, findByNameStartingWithIgnoreCase)
+CREATE INDEX idx_client_name_normalized ON tb_client (name_normalized);
+-- Paginacao por keyset ordenada por nome
+CREATE INDEX idx_client_name_id ON tb_client (name, id);
+-- Filtros de renda e de nascimento, isolados ou combinados (/clients/search)
+CREATE INDEX idx_client_income_birth_date ON tb_client (income, birth_date);
+CREATE INDEX idx_client_birth_date_income ON tb_client (birth_date, income);
+CREATE INDEX idx_client_children_income ON tb_client (children, income);
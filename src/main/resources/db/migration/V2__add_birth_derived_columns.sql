@@ -0,0 +1,7 @@
+-- Colunas derivadas de birth_date (em UTC) para aniversarios e faixas de idade;
+-- preenchidas para as linhas existentes por V3__Backfill_birth_columns
+ALTER TABLE tb_client ADD COLUMN birth_month_day INTEGER;
+ALTER TABLE tb_client ADD COLUMN birth_year INTEGER;
+
+CREATE INDEX idx_client_birth_month_day ON tb_client (birth_month_day, birth_year);
+CREATE INDEX idx_client_birth_year ON tb_client (birth_year, birth_month_day);
@@ -0,0 +1,19 @@
+-- Outbox das alteracoes de clientes, gravado na mesma transacao da escrita.
+-- position e atribuida pelo despachante na ordem de publicacao (sem lacunas) e
+-- e o offset usado pelos consumidores; nula enquanto a linha esta pendente
+CREATE SEQUENCE tb_client_change_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tb_client_change (
+    id BIGINT NOT NULL,
+    position BIGINT,
+    client_id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    partial BOOLEAN NOT NULL,
+    payload VARCHAR(4000),
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_client_change PRIMARY KEY (id),
+    CONSTRAINT uk_client_change_position UNIQUE (position)
+);
+
+CREATE INDEX idx_client_change_pending ON tb_client_change (position, id);
+CREATE INDEX idx_client_change_created_at ON tb_client_change (created_at);
@@ -0,0 +1,9 @@
+-- Batimento gravado no primario pelo monitor de replicas (ReplicaLagMonitor):
+-- o relogio do primario menos o beat_at lido em uma replica e o atraso dela
+CREATE TABLE tb_replication_heartbeat (
+    id INTEGER NOT NULL,
+    beat_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_replication_heartbeat PRIMARY KEY (id)
+);
+
+INSERT INTO tb_replication_heartbeat (id, beat_at) VALUES (1, LOCALTIMESTAMP);
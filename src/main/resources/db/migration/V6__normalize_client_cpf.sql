@@ -0,0 +1,4 @@
+-- CPF gravado apenas com digitos: "123.456.789-09" e "12345678909" passam a ser o
+-- mesmo valor para uk_client_cpf. Se as duas formas ja existirem para um mesmo CPF
+-- a migracao para na constraint e os clientes precisam ser unificados antes
+UPDATE tb_client SET cpf = REGEXP_REPLACE(cpf, '[^0-9]', '') WHERE cpf <> REGEXP_REPLACE(cpf, '[^0-9]', '');
@@ -0,0 +1,16 @@
+-- Trigramas de name_normalized para a busca por trecho do nome: o LIKE '%x%'
+-- nao usa indice B-tree, entao cada trigrama do termo vira uma busca nesta
+-- tabela e so os clientes que tem todos eles passam pelo LIKE
+CREATE TABLE tb_client_name_trigram (
+    client_id BIGINT NOT NULL,
+    trigram VARCHAR(3) NOT NULL,
+    CONSTRAINT pk_client_name_trigram PRIMARY KEY (trigram, client_id),
+    CONSTRAINT fk_client_name_trigram_client FOREIGN KEY (client_id) REFERENCES tb_client (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_client_name_trigram_client ON tb_client_name_trigram (client_id);
+
+-- Clientes ja gravados; os novos recebem os trigramas pela entidade e por updateColumns
+INSERT INTO tb_client_name_trigram (client_id, trigram)
+SELECT DISTINCT c.id, SUBSTRING(c.name_normalized, r.x, 3)
+FROM tb_client c JOIN SYSTEM_RANGE(1, 255) r ON r.x <= LENGTH(c.name_normalized) - 2;
@@ -0,0 +1,16 @@
+-- Massa de dados do perfil test; CPFs distintos e com digitos verificadores validos
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(1, 'Conceição Evaristo', 'conceicao evaristo', '10619244836', 1500.0, TIMESTAMP WITH TIME ZONE '2020-07-13T20:50:00Z', 2, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(2, 'Lázaro Ramos', 'lazaro ramos', '10619244917', 2500.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 2, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(3, 'Clarice Lispector', 'clarice lispector', '10919444580', 3800.0, TIMESTAMP WITH TIME ZONE '1960-04-13T07:50:00Z', 2, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(4, 'Carolina Maria de Jesus', 'carolina maria de jesus', '10419244700', 7500.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 0, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(5, 'Gilberto Gil', 'gilberto gil', '10419344837', 2500.0, TIMESTAMP WITH TIME ZONE '1949-05-05T07:00:00Z', 4, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(6, 'Djamila Ribeiro', 'djamila ribeiro', '10619245131', 4500.0, TIMESTAMP WITH TIME ZONE '1975-11-10T07:00:00Z', 1, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(7, 'Jose Saramago', 'jose saramago', '10239254864', 5000.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 0, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(8, 'Toni Morrison', 'toni morrison', '10219344612', 10000.0, TIMESTAMP WITH TIME ZONE '1940-02-23T07:00:00Z', 0, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(9, 'Yuval Noah Harari', 'yuval noah harari', '10619245050', 1500.0, TIMESTAMP WITH TIME ZONE '1956-09-23T07:00:00Z', 0, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(10, 'Chimamanda Adichie', 'chimamanda adichie', '10114274860', 1500.0, TIMESTAMP WITH TIME ZONE '1956-09-23T07:00:00Z', 0, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(11, 'Silvio Almeida', 'silvio almeida', '10164334840', 4500.0, TIMESTAMP WITH TIME ZONE '1970-09-23T07:00:00Z', 2, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(12, 'Jorge Amado', 'jorge amado', '10204374138', 2500.0, TIMESTAMP WITH TIME ZONE '1918-09-23T07:00:00Z', 0, 0);
+INSERT INTO tb_client (id, name, name_normalized, cpf, income, birth_date, children, version) VALUES(13, 'Gloria Maria', 'gloria maria', '10204374480', 6500.0, TIMESTAMP WITH TIME ZONE '1918-09-23T07:00:00Z', 0, 0);
+
+ALTER SEQUENCE tb_client_seq RESTART WITH 14;
@@ -0,0 +1,135 @@
+package com.iftm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.iftm.client.admission.AdmissionFilter;
+import com.iftm.client.util.TokenBucket;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdmissionFilterTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdmissionFilter filtro(double permitsPerSecond, int burst, int readPermits, int writePermits) {
+        // MockHttpServletRequest vem de 127.0.0.1, o gateway confiavel
+        return new AdmissionFilter(permitsPerSecond, burst, "X-Client-Id", Set.of("127.0.0.1"), Duration.ofMinutes(10),
+                1000, readPermits, writePermits, new ObjectMapper().registerModule(new JavaTimeModule()), registry);
+    }
+
+    private MockHttpServletResponse executar(AdmissionFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private double rejeitadas(String bulkhead) {
+        return registry.get("client.admission.rejected").tag("bulkhead", bulkhead).counter().count();
+    }
+
+    @DisplayName("Testar se o token bucket libera a rajada, rejeita o excesso e reabastece com o tempo.")
+    @Test
+    public void testarTokenBucket() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(now));
+
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+
+    @DisplayName("Testar se cada cliente tem seu próprio limite e o excesso recebe 429 com Retry-After.")
+    @Test
+    public void testarLimitePorCliente() throws Exception {
+        AdmissionFilter filter = filtro(1, 2, 10, 10);
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/clients");
+            request.addHeader("X-Client-Id", "a");
+            assertEquals(200, executar(filter, request).getStatus());
+        }
+        MockHttpServletRequest excess = new MockHttpServletRequest("GET", "/clients");
+        excess.addHeader("X-Client-Id", "a");
+        MockHttpServletResponse rejected = executar(filter, excess);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(1.0, rejeitadas("none"));
+
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/clients");
+        other.addHeader("X-Client-Id", "b");
+        assertEquals(200, executar(filter, other).getStatus());
+        assertEquals(200, executar(filter, new MockHttpServletRequest("GET", "/actuator/health")).getStatus());
+    }
+
+    @DisplayName("Testar se o cabeçalho do cliente é ignorado fora do gateway, limitando pelo IP.")
+    @Test
+    public void testarCabecalhoForaDoGateway() throws Exception {
+        AdmissionFilter filter = filtro(1, 2, 10, 10);
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/clients");
+            request.setRemoteAddr("10.0.0.7");
+            request.addHeader("X-Client-Id", "c" + i);
+            assertEquals(200, executar(filter, request).getStatus());
+        }
+        MockHttpServletRequest spoofed = new MockHttpServletRequest("GET", "/clients");
+        spoofed.setRemoteAddr("10.0.0.7");
+        spoofed.addHeader("X-Client-Id", "c2");
+        assertEquals(429, executar(filter, spoofed).getStatus());
+
+        MockHttpServletRequest gateway = new MockHttpServletRequest("GET", "/clients");
+        gateway.addHeader("X-Client-Id", "c2");
+        assertEquals(200, executar(filter, gateway).getStatus());
+    }
+
+    @DisplayName("Testar se leituras e escritas têm bulkheads separados, liberados ao fim da requisição assíncrona.")
+    @Test
+    public void testarBulkheads() throws Exception {
+        AdmissionFilter filter = filtro(1000, 1000, 1, 1);
+
+        // Leitura assincrona segura a permissao ate completar
+        MockHttpServletRequest pending = new MockHttpServletRequest("GET", "/clients/1");
+        pending.setAsyncSupported(true);
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                request.startAsync();
+            }
+        };
+        filter.doFilter(pending, new MockHttpServletResponse(), chain);
+
+        assertEquals(429, executar(filter, new MockHttpServletRequest("GET", "/clients")).getStatus());
+        assertEquals(1.0, rejeitadas("read"));
+        assertEquals(200, executar(filter, new MockHttpServletRequest("PUT", "/clients/1")).getStatus());
+
+        AsyncContext async = pending.getAsyncContext();
+        ((MockAsyncContext) async).complete();
+        assertEquals(200, executar(filter, new MockHttpServletRequest("GET", "/clients")).getStatus());
+        assertEquals(1.0, registry.get("client.admission.bulkhead.available").tag("bulkhead", "read").gauge().value());
+    }
+
+}
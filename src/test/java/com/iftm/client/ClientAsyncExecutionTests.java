@@ -0,0 +1,55 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClientAsyncExecutionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestMappingHandlerAdapter adapter;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private ThreadPoolTaskExecutor applicationTaskExecutor;
+
+    @DisplayName("Testar se o MVC async usa o applicationTaskExecutor limitado, e não o SimpleAsyncTaskExecutor.")
+    @Test
+    public void testarExecutorDoMvcAsync() throws Exception {
+        assertThat(ReflectionTestUtils.getField(adapter, "taskExecutor")).isSameAs(applicationTaskExecutor);
+        assertThat(applicationTaskExecutor.getThreadNamePrefix()).isEqualTo("mvc-async-");
+        assertThat(applicationTaskExecutor.getMaxPoolSize()).isEqualTo(10);
+
+        long before = applicationTaskExecutor.getThreadPoolExecutor().getCompletedTaskCount();
+        MvcResult result = mockMvc.perform(get("/clients/export")).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (applicationTaskExecutor.getThreadPoolExecutor().getCompletedTaskCount() == before) {
+            assertThat(System.nanoTime()).as("export did not run on the pool").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+}
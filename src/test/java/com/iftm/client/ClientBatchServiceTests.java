@@ -0,0 +1,102 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.iftm.client.dto.BatchResultDTO;
+import com.iftm.client.dto.BatchResultDTO.Status;
+import com.iftm.client.dto.DeleteRequestDTO;
+import com.iftm.client.dto.DeleteResultDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientBatchService;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+@SpringBootTest(properties = "client.batch.chunk-size=2")
+@Transactional
+public class ClientBatchServiceTests {
+
+    @Autowired
+    private ClientBatchService batchService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientService clientService;
+
+    private List<BatchResultDTO> enviar(String body) throws IOException {
+        return batchService.upsert(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @DisplayName("Testar carga em lote a partir de um array JSON, inserindo e atualizando por CPF.")
+    @Test
+    public void testarUpsertArrayJson() throws IOException {
+        List<BatchResultDTO> result = enviar("["
+                + "{\"name\":\"Ailton Krenak\",\"cpf\":\"52998224725\",\"income\":3000.0,\"children\":1},"
+                + "{\"name\":\"Clarice Lispector\",\"cpf\":\"10919444580\",\"income\":9000.0,\"children\":2},"
+                + "{\"name\":\"Sem CPF\",\"income\":100.0}]");
+
+        assertThat(result).extracting("status").containsExactly(Status.CREATED, Status.UPDATED, Status.FAILED);
+        assertThat(result.get(0).getId()).isNotNull();
+        assertThat(clientRepository.count()).isEqualTo(14);
+        assertThat(clientRepository.findByNameIgnoreCase("Clarice Lispector").get().getIncome()).isEqualTo(9000.0);
+    }
+
+    @DisplayName("Testar carga em lote a partir de NDJSON com CPF repetido no mesmo arquivo.")
+    @Test
+    public void testarUpsertNdjson() throws IOException {
+        List<BatchResultDTO> result = enviar(
+                "{\"name\":\"Ailton Krenak\",\"cpf\":\"52998224725\",\"income\":3000.0}\n"
+                + "{\"name\":\"Davi Kopenawa\",\"cpf\":\"11144477735\",\"income\":2000.0}\n"
+                + "{\"name\":\"Ailton Krenak\",\"cpf\":\"52998224725\",\"income\":3500.0}\n");
+
+        assertThat(result).extracting("status").containsExactly(Status.CREATED, Status.CREATED, Status.UPDATED);
+        assertThat(result.get(2).getId()).isEqualTo(result.get(0).getId());
+        assertThat(clientRepository.count()).isEqualTo(15);
+    }
+
+    @DisplayName("Testar exclusão em massa por lista de ids, ignorando ids inexistentes.")
+    @Test
+    public void testarExcluirPorIds() {
+        DeleteResultDTO result = batchService.delete(new DeleteRequestDTO(List.of(1L, 2L, 3L, 999L), null, null));
+
+        assertThat(result.getDeleted()).isEqualTo(3);
+        assertThat(clientRepository.existsById(2L)).isFalse();
+        assertThat(clientRepository.count()).isEqualTo(10);
+    }
+
+    @DisplayName("Testar exclusão em massa com id nulo na lista, recusada sem excluir nenhum bloco.")
+    @Test
+    public void testarExcluirComIdNulo() {
+        DeleteRequestDTO request = new DeleteRequestDTO(Arrays.asList(1L, 2L, null), null, null);
+
+        assertThrows(InvalidRequestException.class, () -> batchService.delete(request));
+        assertThrows(InvalidRequestException.class, () -> clientService.deleteAll(Arrays.asList(3L, null)));
+        assertThat(clientRepository.count()).isEqualTo(13);
+    }
+
+    @DisplayName("Testar exclusão em massa por intervalo de data de nascimento.")
+    @Test
+    public void testarExcluirPorIntervaloNascimento() {
+        DeleteResultDTO result = batchService.delete(new DeleteRequestDTO(null,
+                Instant.parse("1996-12-23T00:00:00Z"), Instant.parse("1996-12-23T23:59:59Z")));
+
+        assertThat(result.getDeleted()).isEqualTo(3);
+        assertThat(clientRepository.count()).isEqualTo(10);
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnknownFieldSet;
+import com.google.protobuf.UnknownFieldSet.Field;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.formats.CompactFormats;
+import com.iftm.client.services.ClientService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClientBinaryFormatsTests {
+
+    private static final Instant BIRTH_DATE = Instant.parse("1953-09-29T00:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private CompactFormats formats;
+
+    // Protobuf lido e escrito sem ClientProtobuf, pelos numeros de campo do client.proto
+    private static UnknownFieldSet cliente(String name, String cpf, long incomeCents, int children) {
+        return UnknownFieldSet.newBuilder()
+                .addField(2, Field.newBuilder().addLengthDelimited(ByteString.copyFromUtf8(name)).build())
+                .addField(3, Field.newBuilder().addLengthDelimited(ByteString.copyFromUtf8(cpf)).build())
+                .addField(4, Field.newBuilder().addVarint(CodedOutputStream.encodeZigZag64(incomeCents)).build())
+                .addField(6, Field.newBuilder().addVarint(children).build())
+                .build();
+    }
+
+    private static String texto(UnknownFieldSet message, int number) {
+        return message.getField(number).getLengthDelimitedList().get(0).toStringUtf8();
+    }
+
+    private static long zigZag(UnknownFieldSet message, int number) {
+        return CodedInputStream.decodeZigZag64(message.getField(number).getVarintList().get(0));
+    }
+
+    private byte[] executar(RequestBuilder request, MediaType expected) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType()).isCompatibleWith(expected))
+                .isTrue();
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    @DisplayName("Testar cliente em CBOR, Smile e Protobuf com data em milissegundos e renda em centavos.")
+    @Test
+    public void testarClienteEmFormatosBinarios() throws Exception {
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "52998224725", 3000.55, BIRTH_DATE, 1));
+        try {
+            byte[] cbor = executar(get("/clients/{id}", created.getId()).accept(CompactFormats.CBOR),
+                    CompactFormats.CBOR);
+            JsonNode tree = formats.getCbor().readTree(cbor);
+            assertThat(tree.get("incomeCents").longValue()).isEqualTo(300055L);
+            assertThat(tree.get("birthDate").longValue()).isEqualTo(BIRTH_DATE.toEpochMilli());
+            assertThat(tree.has("income")).isFalse();
+
+            byte[] smile = executar(get("/clients/{id}", created.getId()).accept(CompactFormats.SMILE),
+                    CompactFormats.SMILE);
+            ClientDTO fromSmile = formats.getSmile().readValue(smile, ClientDTO.class);
+            assertThat(fromSmile.getIncome()).isEqualTo(3000.55);
+            assertThat(fromSmile.getBirthDate()).isEqualTo(BIRTH_DATE);
+
+            byte[] protobuf = executar(get("/clients/{id}", created.getId()).accept(CompactFormats.PROTOBUF),
+                    CompactFormats.PROTOBUF);
+            UnknownFieldSet fromProtobuf = UnknownFieldSet.parseFrom(protobuf);
+            assertThat(fromProtobuf.getField(1).getVarintList()).containsExactly(created.getId());
+            assertThat(texto(fromProtobuf, 2)).isEqualTo("Ailton Krenak");
+            assertThat(texto(fromProtobuf, 3)).isEqualTo("52998224725");
+            assertThat(zigZag(fromProtobuf, 4)).isEqualTo(300055L);
+            assertThat(zigZag(fromProtobuf, 5)).isEqualTo(BIRTH_DATE.toEpochMilli());
+            assertThat(fromProtobuf.getField(6).getVarintList()).containsExactly(1L);
+            assertThat(protobuf.length).isLessThan(cbor.length);
+
+            executar(get("/clients/{id}", created.getId()).accept(MediaType.ALL), MediaType.APPLICATION_JSON);
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+    @DisplayName("Testar se a página binária traz só o conteúdo e os totais.")
+    @Test
+    public void testarPaginaEnxuta() throws Exception {
+        byte[] smile = executar(get("/clients").param("linesPerPage", "5").accept(CompactFormats.SMILE),
+                CompactFormats.SMILE);
+        JsonNode tree = formats.getSmile().readTree(smile);
+
+        assertThat(tree.get("content")).hasSize(5);
+        assertThat(tree.get("totalElements").longValue()).isEqualTo(13L);
+        assertThat(tree.has("pageable")).isFalse();
+        assertThat(tree.has("sort")).isFalse();
+    }
+
+    @DisplayName("Testar carga em lote e exportação em Protobuf.")
+    @Test
+    public void testarLoteEExportacaoProtobuf() throws Exception {
+        // ClientList: os clientes no campo 1
+        byte[] body = UnknownFieldSet.newBuilder()
+                .addField(1, Field.newBuilder()
+                        .addLengthDelimited(cliente("Ailton Krenak", "52998224725", 300000L, 1).toByteString())
+                        .addLengthDelimited(cliente("Davi Kopenawa", "11144477735", 200000L, 0).toByteString())
+                        .build())
+                .build().toByteArray();
+
+        mockMvc.perform(post("/clients/batch").contentType(CompactFormats.PROTOBUF).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"cpf\":\"52998224725\",\"status\":\"CREATED\"},"
+                        + "{\"cpf\":\"11144477735\",\"status\":\"CREATED\"}]"));
+        try {
+            byte[] export = executar(get("/clients/export").param("format", "protobuf"), CompactFormats.PROTOBUF);
+            List<String> cpfs = new ArrayList<>();
+            for (ByteString client : UnknownFieldSet.parseFrom(export).getField(1).getLengthDelimitedList()) {
+                cpfs.add(texto(UnknownFieldSet.parseFrom(client), 3));
+            }
+            assertThat(cpfs).hasSize(15).contains("52998224725", "11144477735");
+            assertThat(service.findByCpf("52998224725").getIncome()).isEqualTo(3000.0);
+        } finally {
+            service.delete(service.findByCpf("52998224725").getId());
+            service.delete(service.findByCpf("11144477735").getId());
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.iftm.client.dto.AgeBucketDTO;
+import com.iftm.client.dto.BirthdayDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientBirthdayService;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+@SpringBootTest
+public class ClientBirthdayTests {
+
+    @Autowired
+    private ClientBirthdayService service;
+
+    @Autowired
+    private ClientService clientService;
+
+    @DisplayName("Testar aniversários numa janela que atravessa a virada do ano.")
+    @Test
+    public void testarAniversariosNaViradaDoAno() {
+        List<BirthdayDTO> result = service.upcoming(LocalDate.of(2026, 12, 20), 30, null);
+
+        // 1996-12-23 (tres clientes); nenhum aniversario em janeiro na massa de teste
+        assertThat(result).hasSize(3).allSatisfy(x -> {
+            assertThat(x.getBirthday()).isEqualTo(LocalDate.of(2026, 12, 23));
+            assertThat(x.getTurning()).isEqualTo(30);
+        });
+        assertThat(result).extracting(x -> x.getClient().getName())
+                .containsExactly("Carolina Maria de Jesus", "Jose Saramago", "Lázaro Ramos");
+    }
+
+    @DisplayName("Testar aniversários filtrando pela idade completada.")
+    @Test
+    public void testarAniversariosPorIdade() {
+        List<BirthdayDTO> result = service.upcoming(LocalDate.of(2026, 9, 1), 30, 70);
+
+        assertThat(result).extracting(x -> x.getClient().getName())
+                .containsExactlyInAnyOrder("Yuval Noah Harari", "Chimamanda Adichie");
+        assertThat(service.upcoming(LocalDate.of(2026, 9, 1), 30, 56)).extracting(x -> x.getClient().getName())
+                .containsExactly("Silvio Almeida");
+        assertThrows(InvalidRequestException.class, () -> service.upcoming(LocalDate.of(2026, 9, 1), 400, null));
+    }
+
+    @DisplayName("Testar contagem por faixa de idade.")
+    @Test
+    public void testarFaixasDeIdade() {
+        List<AgeBucketDTO> buckets = service.ageBuckets(LocalDate.of(2026, 10, 18), 50);
+
+        assertThat(buckets).extracting(AgeBucketDTO::getCount).containsExactly(4L, 7L, 2L);
+        assertThat(buckets.get(2).getFromAge()).isEqualTo(100);
+        assertThat(buckets.get(2).getToAge()).isEqualTo(149);
+    }
+
+    @DisplayName("Testar janela de 366 dias com o mesmo dia nos dois anos.")
+    @Test
+    public void testarJanelaDe366Dias() {
+        List<BirthdayDTO> result = service.upcoming(LocalDate.of(2026, 12, 23), 366, null);
+
+        assertThat(result).filteredOn(x -> x.getClient().getName().equals("Jose Saramago"))
+                .extracting(BirthdayDTO::getBirthday, BirthdayDTO::getTurning)
+                .containsExactly(tuple(LocalDate.of(2026, 12, 23), 30), tuple(LocalDate.of(2027, 12, 23), 31));
+        assertThat(result).filteredOn(x -> x.getBirthday().getMonthValue() == 12 && x.getBirthday().getDayOfMonth() == 23)
+                .hasSize(6);
+    }
+
+    @DisplayName("Testar nascido em 29/02 fazendo aniversário e completando idade em 28/02 no ano não bissexto.")
+    @Test
+    public void testarNascidoEm29DeFevereiro() {
+        ClientDTO created = clientService.insert(new ClientDTO(null, "Milton Santos", "46127805074", 3000.0,
+                Instant.parse("2000-02-29T12:00:00Z"), 0));
+        try {
+            assertThat(service.upcoming(LocalDate.of(2027, 2, 28), 1, null))
+                    .extracting(BirthdayDTO::getBirthday, BirthdayDTO::getTurning)
+                    .containsExactly(tuple(LocalDate.of(2027, 2, 28), 27));
+            assertThat(service.upcoming(LocalDate.of(2027, 3, 1), 30, null))
+                    .noneMatch(x -> x.getClient().getId().equals(created.getId()));
+            assertThat(service.upcoming(LocalDate.of(2028, 2, 28), 2, 28))
+                    .extracting(BirthdayDTO::getBirthday).containsExactly(LocalDate.of(2028, 2, 29));
+
+            // Idade completa na mesma data usada por upcoming
+            assertThat(service.ageBuckets(LocalDate.of(2027, 2, 27), 1).get(26).getCount()).isEqualTo(1);
+            assertThat(service.ageBuckets(LocalDate.of(2027, 2, 28), 1).get(27).getCount()).isEqualTo(1);
+            assertThat(service.ageBuckets(LocalDate.of(2028, 2, 28), 1).get(27).getCount()).isEqualTo(1);
+            assertThat(service.ageBuckets(LocalDate.of(2028, 2, 29), 1).get(28).getCount()).isEqualTo(1);
+        } finally {
+            clientService.delete(created.getId());
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.metrics.StatementCounter;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+public class ClientCacheTests {
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tag("cache", "clients").tag("result", result).functionCounter().count();
+    }
+
+    @DisplayName("Testar cache negativo de id inexistente e métricas de acerto e falha.")
+    @Test
+    public void testarCacheNegativoEMetricas() {
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        assertThrows(ResourceNotFoundException.class, () -> service.findById(987654L));
+        AtomicInteger statements = StatementCounter.begin();
+        try {
+            assertThrows(ResourceNotFoundException.class, () -> service.findById(987654L));
+        } finally {
+            StatementCounter.end();
+        }
+
+        assertThat(statements.get()).isZero();
+        assertThat(gets("miss")).isEqualTo(misses + 1);
+        assertThat(gets("hit")).isEqualTo(hits + 1);
+    }
+
+    @DisplayName("Testar invalidação do cache depois de atualização e exclusão.")
+    @Test
+    public void testarInvalidacao() {
+        ClientDTO created = service.insert(new ClientDTO(null, "Sueli Carneiro", "27548438923", 4000.0,
+                Instant.parse("1950-06-24T00:00:00Z"), 1));
+        boolean deleted = false;
+        try {
+            service.findById(created.getId());
+            assertThat(service.cachedVersion(created.getId())).isEqualTo(0L);
+
+            ClientDTO changed = new ClientDTO(null, "Sueli Carneiro", "27548438923", 4200.0,
+                    Instant.parse("1950-06-24T00:00:00Z"), 1);
+            service.update(created.getId(), changed);
+            assertThat(service.cachedVersion(created.getId())).isNull();
+            assertThat(service.findById(created.getId()).getIncome()).isEqualTo(4200.0);
+
+            service.delete(created.getId());
+            deleted = true;
+            assertThat(service.cachedVersion(created.getId())).isNull();
+            assertThrows(ResourceNotFoundException.class, () -> service.findById(created.getId()));
+        } finally {
+            if (!deleted) {
+                service.delete(created.getId());
+            }
+        }
+    }
+
+    @DisplayName("Testar que alterar o DTO devolvido não altera o cache.")
+    @Test
+    public void testarCopiaDoCache() {
+        service.findById(1L).setName("Alterado");
+
+        assertThat(service.findById(1L).getName()).isEqualTo("Conceição Evaristo");
+    }
+
+    @DisplayName("Testar que leituras dentro de transação de escrita não preenchem o cache.")
+    @Test
+    public void testarLeituraEmTransacaoDeEscrita() {
+        ClientDTO created = service.insert(new ClientDTO(null, "Abdias Nascimento", "71460238001", 2800.0,
+                Instant.parse("1914-03-14T00:00:00Z"), 2));
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertThat(service.findById(created.getId()).getName()).isEqualTo("Abdias Nascimento");
+            });
+
+            assertThat(service.cachedVersion(created.getId())).isNull();
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+}
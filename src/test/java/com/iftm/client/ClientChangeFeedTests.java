@@ -0,0 +1,255 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientChangeFeed;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.events.ClientChangeListener;
+import com.iftm.client.services.events.ClientChangedEvent.Type;
+
+// Fila de um lote por inscrito, para exercitar o transbordo
+@SpringBootTest(properties = "client.changes.subscriber-buffer=1")
+public class ClientChangeFeedTests {
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientChangeFeed feed;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("clientExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    private List<ClientChangeDTO> aguardar(List<ClientChangeDTO> received, int count) throws InterruptedException {
+        for (int i = 0; i < 100 && received.size() < count; i++) {
+            Thread.sleep(50);
+        }
+        return received;
+    }
+
+    @DisplayName("Testar se inclusão, alteração parcial e exclusão chegam ao inscrito em ordem e podem ser reprocessadas.")
+    @Test
+    public void testarFeedDeAlteracoes() throws InterruptedException {
+        feed.dispatch();
+        long since = feed.getLastPosition();
+        List<ClientChangeDTO> received = new CopyOnWriteArrayList<>();
+        ClientChangeFeed.Subscription subscription = feed.subscribe(since, received::addAll);
+        try {
+            ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "52998224725", 3000.0,
+                    Instant.parse("1953-09-29T00:00:00Z"), 1));
+            ClientDTO changes = new ClientDTO();
+            changes.setIncome(3500.0);
+            service.patch(created.getId(), changes);
+            service.delete(created.getId());
+            feed.dispatch();
+
+            assertThat(aguardar(received, 3)).extracting(ClientChangeDTO::getType)
+                    .containsExactly(Type.CREATED, Type.UPDATED, Type.DELETED);
+            assertThat(received).extracting(ClientChangeDTO::getPosition)
+                    .containsExactly(since + 1, since + 2, since + 3);
+            assertThat(received.get(0).getClient().getName()).isEqualTo("Ailton Krenak");
+            assertThat(received.get(1).isPartial()).isTrue();
+            assertThat(received.get(1).getClient().getIncome()).isEqualTo(3500.0);
+            assertThat(received.get(2).getClient()).isNull();
+        } finally {
+            subscription.cancel();
+        }
+
+        // Replay a partir de um offset intermediario
+        List<ClientChangeDTO> replayed = new CopyOnWriteArrayList<>();
+        ClientChangeFeed.Subscription resumed = feed.subscribe(since + 1, replayed::addAll);
+        try {
+            assertThat(aguardar(replayed, 2)).extracting(ClientChangeDTO::getType)
+                    .containsExactly(Type.UPDATED, Type.DELETED);
+        } finally {
+            resumed.cancel();
+        }
+        assertThat(feed.findAfter(since, 10)).hasSize(3);
+    }
+
+    @DisplayName("Testar se um inscrito lento não atrasa o despacho nem os outros e depois recebe tudo pelo outbox.")
+    @Test
+    public void testarInscritoLento() throws InterruptedException {
+        feed.dispatch();
+        long since = feed.getLastPosition();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<ClientChangeDTO> slow = new CopyOnWriteArrayList<>();
+        List<ClientChangeDTO> fast = new CopyOnWriteArrayList<>();
+        ClientChangeFeed.Subscription slowSubscription = feed.subscribe(since, changes -> {
+            blocked.countDown();
+            release.await();
+            slow.addAll(changes);
+        });
+        ClientChangeFeed.Subscription fastSubscription = feed.subscribe(since, fast::addAll);
+        List<Long> ids = new CopyOnWriteArrayList<>();
+        try {
+            String[] cpfs = { "52998224725", "11144477735", "39053344705", "27548438923" };
+            for (String cpf : cpfs) {
+                ids.add(service.insert(new ClientDTO(null, "Ailton Krenak", cpf, 3000.0, null, 0)).getId());
+                long start = System.nanoTime();
+                feed.dispatch();
+                assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+            }
+            assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(aguardar(fast, 4)).extracting(ClientChangeDTO::getPosition)
+                    .containsExactly(since + 1, since + 2, since + 3, since + 4);
+
+            release.countDown();
+            assertThat(aguardar(slow, 4)).extracting(ClientChangeDTO::getPosition)
+                    .containsExactly(since + 1, since + 2, since + 3, since + 4);
+        } finally {
+            release.countDown();
+            slowSubscription.cancel();
+            fastSubscription.cancel();
+            for (Long id : ids) {
+                service.delete(id);
+            }
+        }
+    }
+
+    @DisplayName("Testar aviso ao inscrito quando o offset pedido já foi removido pela retenção.")
+    @Test
+    public void testarOffsetRemovido() throws InterruptedException {
+        feed.dispatch();
+        long since = feed.getLastPosition();
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "71460238001", 3000.0, null, 0));
+        service.delete(created.getId());
+        feed.dispatch();
+        // Retencao simulada: a primeira alteracao some do outbox
+        jdbcTemplate.update("DELETE FROM tb_client_change WHERE position = ?", since + 1);
+
+        AtomicLong purged = new AtomicLong(-1);
+        List<ClientChangeDTO> received = new CopyOnWriteArrayList<>();
+        ClientChangeFeed.Subscription subscription = feed.subscribe(since, new ClientChangeListener() {
+
+            @Override
+            public void onChanges(List<ClientChangeDTO> changes) {
+                received.addAll(changes);
+            }
+
+            @Override
+            public void onPurged(long position) {
+                purged.set(position);
+            }
+
+        });
+        for (int i = 0; i < 100 && purged.get() < 0; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(purged.get()).isEqualTo(since);
+        assertThat(subscription.isCancelled()).isTrue();
+        assertThat(received).isEmpty();
+
+        // A partir do que ainda esta retido, a inscricao segue normalmente
+        List<ClientChangeDTO> resumed = new CopyOnWriteArrayList<>();
+        ClientChangeFeed.Subscription resumedSubscription = feed.subscribe(since + 1, resumed::addAll);
+        try {
+            assertThat(aguardar(resumed, 1)).extracting(ClientChangeDTO::getType).containsExactly(Type.DELETED);
+        } finally {
+            resumedSubscription.cancel();
+        }
+    }
+
+    @DisplayName("Testar se o clientExecutor cheio atrasa o inscrito sem travá-lo e recusa novas inscrições.")
+    @Test
+    public void testarExecutorCheio() throws InterruptedException {
+        feed.dispatch();
+        long since = feed.getLastPosition();
+        List<ClientChangeDTO> received = new CopyOnWriteArrayList<>();
+        ClientChangeFeed.Subscription subscription = feed.subscribe(since, received::addAll);
+        List<ClientChangeDTO> rejected = new CopyOnWriteArrayList<>();
+        List<Long> ids = new CopyOnWriteArrayList<>();
+        CountDownLatch busy = new CountDownLatch(executor.getMaxPoolSize());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ids.add(service.insert(new ClientDTO(null, "Ailton Krenak", "85351346893", 3000.0, null, 0)).getId());
+            feed.dispatch();
+            assertThat(aguardar(received, 1)).hasSize(1);
+
+            // Todas as threads presas e a fila cheia: qualquer nova tarefa e recusada
+            for (int i = 0; i < executor.getMaxPoolSize(); i++) {
+                executor.execute(() -> {
+                    busy.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertThat(busy.await(5, TimeUnit.SECONDS)).isTrue();
+            while (executor.getThreadPoolExecutor().getQueue().remainingCapacity() > 0) {
+                executor.execute(() -> {
+                });
+            }
+
+            ids.add(service.insert(new ClientDTO(null, "Ailton Krenak", "46127805074", 3000.0, null, 0)).getId());
+            feed.dispatch();
+            assertThrows(TaskRejectedException.class, () -> feed.subscribe(since, rejected::addAll));
+
+            release.countDown();
+            for (int i = 0; i < 100 && executor.getThreadPoolExecutor().getQueue().size() > 0; i++) {
+                Thread.sleep(50);
+            }
+            // O despacho seguinte reagenda o inscrito, que le do outbox o lote perdido
+            ids.add(service.insert(new ClientDTO(null, "Ailton Krenak", "19827364537", 3000.0, null, 0)).getId());
+            feed.dispatch();
+            assertThat(aguardar(received, 3)).extracting(ClientChangeDTO::getPosition)
+                    .containsExactly(since + 1, since + 2, since + 3);
+            assertThat(rejected).isEmpty();
+        } finally {
+            release.countDown();
+            subscription.cancel();
+            for (Long id : ids) {
+                service.delete(id);
+            }
+        }
+    }
+
+    @DisplayName("Testar se a retenção remove um prefixo dos offsets, sem lacunas no que fica.")
+    @Test
+    public void testarRetencaoPorOffset() {
+        feed.dispatch();
+        long since = feed.getLastPosition();
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "11144477735", 3000.0, null, 0));
+        ClientDTO changes = new ClientDTO();
+        changes.setIncome(3500.0);
+        service.patch(created.getId(), changes);
+        service.delete(created.getId());
+        feed.dispatch();
+        // Linha numerada fora da ordem de createdAt, como as copiadas de outro shard
+        jdbcTemplate.update("UPDATE tb_client_change SET created_at = ? WHERE position = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(30))), since + 2);
+
+        feed.purge();
+
+        assertThat(feed.findAfter(since, 10)).extracting(ClientChangeDTO::getPosition).containsExactly(since + 3);
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientChangeFeed;
+import com.iftm.client.services.ClientService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClientConditionalRequestTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientChangeFeed feed;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Os endpoints devolvem CompletableFuture; respostas 304 ja vem prontas
+    private ResultActions executar(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    @DisplayName("Testar ETag por cliente, 304 com If-None-Match e 412 com If-Match desatualizado.")
+    @Test
+    public void testarETagDoCliente() throws Exception {
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "52998224725", 3000.0,
+                Instant.parse("1953-09-29T00:00:00Z"), 1));
+        String etag = "\"" + created.getId() + "-0-json\"";
+        String body = "{\"name\":\"Ailton Krenak\",\"cpf\":\"52998224725\",\"income\":3500.0,\"children\":1}";
+        try {
+            executar(get("/clients/{id}", created.getId())).andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+            executar(get("/clients/{id}", created.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified()).andExpect(content().string(""));
+
+            executar(put("/clients/{id}", created.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + created.getId() + "-7-json\"").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isPreconditionFailed());
+            executar(put("/clients/{id}", created.getId()).header(HttpHeaders.IF_MATCH, etag)
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"" + created.getId() + "-1-json\""));
+            executar(get("/clients/{id}", created.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk());
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+    @DisplayName("Testar ETag por representação, com Vary: Accept, e If-Match aceito em qualquer formato.")
+    @Test
+    public void testarETagPorRepresentacao() throws Exception {
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "52998224725", 3000.0, null, 1));
+        String json = "\"" + created.getId() + "-0-json\"";
+        String cbor = "\"" + created.getId() + "-0-cbor\"";
+        try {
+            executar(get("/clients/{id}", created.getId()).accept("application/cbor")).andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, cbor))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+            executar(get("/clients/{id}", created.getId()).accept("application/x-protobuf;q=0.5, application/cbor"))
+                    .andExpect(header().string(HttpHeaders.ETAG, cbor));
+            // O ETag do JSON nao serve para o CBOR, nem o contrario
+            executar(get("/clients/{id}", created.getId()).accept("application/cbor")
+                    .header(HttpHeaders.IF_NONE_MATCH, json)).andExpect(status().isOk());
+            executar(get("/clients/{id}", created.getId()).header(HttpHeaders.IF_NONE_MATCH, cbor))
+                    .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, json));
+            executar(get("/clients/{id}", created.getId()).accept("application/cbor")
+                    .header(HttpHeaders.IF_NONE_MATCH, cbor)).andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+            String list = executar(get("/clients")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            executar(get("/clients").accept("application/x-jackson-smile").header(HttpHeaders.IF_NONE_MATCH, list))
+                    .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+            executar(patch("/clients/{id}", created.getId()).header(HttpHeaders.IF_MATCH, cbor)
+                    .contentType(MediaType.APPLICATION_JSON).content("{\"income\":3500.0}"))
+                    .andExpect(status().isNoContent())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"" + created.getId() + "-1-json\""));
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+    @DisplayName("Testar ETag das listagens, alterado a cada escrita.")
+    @Test
+    public void testarETagDaListagem() throws Exception {
+        String etag = executar(get("/clients")).andExpect(status().isOk()).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        executar(get("/clients").header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        ClientDTO created = service.insert(new ClientDTO(null, "Davi Kopenawa", "11144477735", 2000.0, null, 0));
+        try {
+            executar(get("/clients").header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+    @DisplayName("Testar se a listagem ignora If-Modified-Since e devolve a escrita feita no mesmo segundo.")
+    @Test
+    public void testarIfModifiedSinceIgnorado() throws Exception {
+        executar(get("/clients")).andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "39053344705", 2000.0, null, 0));
+        try {
+            // Data HTTP nao anterior a escrita: por ela so, a resposta seria 304
+            long ifModifiedSince = (System.currentTimeMillis() / 1000 + 1) * 1000;
+            executar(get("/clients").header(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("Ailton Krenak")));
+            executar(get("/clients/" + created.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince))
+                    .andExpect(status().isOk());
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+    @DisplayName("Testar 412 com If-Match em cliente inexistente, inclusive com *.")
+    @Test
+    public void testarIfMatchSemCliente() throws Exception {
+        String body = "{\"name\":\"Ninguem\",\"cpf\":\"52998224725\",\"income\":1.0,\"children\":0}";
+        executar(put("/clients/{id}", 999999L).header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        executar(put("/clients/{id}", 999999L).header(HttpHeaders.IF_MATCH, "\"999999-0-json\"")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        executar(patch("/clients/{id}", 999999L).header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"income\":1.0}"))
+                .andExpect(status().isPreconditionFailed());
+        executar(put("/clients/{id}", 999999L).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("Testar ETag da listagem alterado por escrita de outra instância, vista pelo outbox.")
+    @Test
+    public void testarETagComEscritaDeOutraInstancia() throws Exception {
+        feed.dispatch();
+        String etag = executar(get("/clients")).andExpect(status().isOk()).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // Linha pendente gravada por outra instancia, sem evento local
+        jdbcTemplate.update("INSERT INTO tb_client_change (id, client_id, type, partial, created_at) "
+                + "VALUES (?, ?, 'DELETED', FALSE, ?)", 999_999_001L, 999999L, Timestamp.from(Instant.now()));
+        feed.dispatch();
+
+        int status = 304;
+        for (int i = 0; i < 100 && status == 304; i++) {
+            Thread.sleep(50);
+            status = executar(get("/clients").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse()
+                    .getStatus();
+        }
+        assertThat(status).isEqualTo(200);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClientExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // O corpo e um StreamingResponseBody, escrito depois do dispatch assincrono
+    private ResultActions executar(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    private String exportar(RequestBuilder request) throws Exception {
+        return executar(request).andExpect(status().isOk()).andReturn().getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private List<Long> idsNdjson(String body) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            ids.add(objectMapper.readValue(line, ClientDTO.class).getId());
+        }
+        return ids;
+    }
+
+    @DisplayName("Testar escape de aspas, vírgulas e quebras de linha no CSV.")
+    @Test
+    public void testarEscapeCsv() throws Exception {
+        ClientDTO created = service.insert(new ClientDTO(null, "Silva, \"Zé\"\nJunior", "39053344705", 12345.5,
+                null, 0));
+        try {
+            String body = exportar(get("/clients/export").param("format", "csv")
+                    .param("incomeMin", "12345.5").param("incomeMax", "12345.5"));
+
+            assertThat(body).isEqualTo("id,name,cpf,income,birthDate,children\n"
+                    + created.getId() + ",\"Silva, \"\"Zé\"\"\nJunior\",39053344705,12345.5,,0\n");
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+    @DisplayName("Testar export filtrado por renda e por data de nascimento, em ordem de id.")
+    @Test
+    public void testarFiltros() throws Exception {
+        String income = exportar(get("/clients/export").param("incomeMin", "1500.0").param("incomeMax", "1500.0"));
+        assertThat(idsNdjson(income)).containsExactly(1L, 9L, 10L);
+
+        String birthDate = exportar(get("/clients/export")
+                .param("birthDateStart", "1996-12-23T07:00:00Z").param("birthDateEnd", "1996-12-23T07:00:00Z"));
+        assertThat(idsNdjson(birthDate)).containsExactly(2L, 4L, 7L);
+    }
+
+    @DisplayName("Testar export completo transmitido em ordem crescente de id.")
+    @Test
+    public void testarOrdemDoStream() throws Exception {
+        List<Long> ids = idsNdjson(exportar(get("/clients/export")));
+
+        assertThat(ids).hasSizeGreaterThanOrEqualTo(13).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).contains(1L, 13L);
+
+        String csv = exportar(get("/clients/export").param("format", "csv"));
+        assertThat(csv.split("\n")).hasSize(ids.size() + 1);
+        assertThat(csv.split("\n")[1]).startsWith(ids.get(0) + ",");
+    }
+
+    @DisplayName("Testar 400 para filtros incompletos, combinados ou formato inválido.")
+    @Test
+    public void testarFiltrosInvalidos() throws Exception {
+        executar(get("/clients/export").param("incomeMin", "1000.0")).andExpect(status().isBadRequest());
+        executar(get("/clients/export").param("birthDateEnd", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        executar(get("/clients/export").param("incomeMin", "1000.0").param("incomeMax", "2000.0")
+                .param("birthDateStart", "1990-01-01T00:00:00Z").param("birthDateEnd", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        executar(get("/clients/export").param("format", "xml")).andExpect(status().isBadRequest());
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.iftm.client;
+
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClientFieldsProjectionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ResultActions executar(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    @DisplayName("Testar se ?fields= devolve apenas os campos pedidos, na ordem pedida.")
+    @Test
+    public void testarSelecaoDeCampos() throws Exception {
+        executar(get("/clients").param("fields", "name,income").param("orderBy", "id").param("linesPerPage", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Conceição Evaristo"))
+                .andExpect(jsonPath("$.content[0].income").value(1500.0))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.content[0].cpf").doesNotExist())
+                .andExpect(content().string(containsString("{\"name\":\"Gilberto Gil\",\"income\":2500.0}")))
+                .andExpect(jsonPath("$.totalElements").isNumber());
+
+        // Campo repetido aparece uma vez
+        executar(get("/clients").param("fields", "cpf,cpf").param("orderBy", "id").param("linesPerPage", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0]", aMapWithSize(1)));
+    }
+
+    @DisplayName("Testar 400 para campo desconhecido e para ?fields= vazio.")
+    @Test
+    public void testarCamposInvalidos() throws Exception {
+        executar(get("/clients").param("fields", "name,password")).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("password")));
+        executar(get("/clients").param("fields", "")).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("fields must not be empty"));
+    }
+
+}
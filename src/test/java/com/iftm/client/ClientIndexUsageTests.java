@@ -0,0 +1,186 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ClientSpecifications;
+
+@SpringBootTest
+public class ClientIndexUsageTests {
+
+    // Comando executado pelo Hibernate, com os valores ligados aos parametros
+    private static class Executed {
+        private final String sql;
+        private final Object[] params;
+
+        Executed(String sql, Map<Integer, Object> params) {
+            this.sql = sql;
+            this.params = new Object[params.size()];
+            params.forEach((index, value) -> this.params[index - 1] = value);
+        }
+    }
+
+    private static final ThreadLocal<List<Executed>> CURRENT = new ThreadLocal<>();
+
+    // Envolve o DataSource para registrar, na thread do teste, o SQL e os
+    // parametros que o Hibernate realmente envia ao banco. O EXPLAIN usa os mesmos
+    // valores: o H2 so escolhe indice para LIKE (? || '%') com o parametro ligado
+    @TestConfiguration
+    static class CapturedStatements {
+
+        @Bean
+        static BeanPostProcessor capturedDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? wrap(DataSource.class, bean, null, null) : bean;
+                }
+            };
+        }
+
+        private static Object wrap(Class<?> type, Object target, String sql, Map<Integer, Object> params) {
+            return Proxy.newProxyInstance(ClientIndexUsageTests.class.getClassLoader(), new Class<?>[] { type },
+                    (proxy, method, args) -> {
+                        if (params != null && method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer) {
+                            params.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+                        }
+                        if (params != null && method.getName().startsWith("execute") && CURRENT.get() != null) {
+                            CURRENT.get().add(new Executed(sql, params));
+                        }
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (result instanceof Connection) {
+                            return wrap(Connection.class, result, null, null);
+                        }
+                        if (result instanceof PreparedStatement && args != null && args[0] instanceof String) {
+                            return wrap(PreparedStatement.class, result, (String) args[0], new HashMap<>());
+                        }
+                        return result;
+                    });
+        }
+
+    }
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // SQL gerado pelo Hibernate para a chamada; os caches de segundo nivel e de
+    // consultas sao limpos antes para que ela chegue ao banco
+    private List<Executed> capturar(Runnable call) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        List<Executed> statements = new ArrayList<>();
+        CURRENT.set(statements);
+        try {
+            call.run();
+        } finally {
+            CURRENT.remove();
+        }
+        return statements;
+    }
+
+    private static ClientFilterDTO filtro(Double incomeMin, Double incomeMax, Instant birthDateStart,
+            Integer childrenMin, Integer childrenMax) {
+        ClientFilterDTO filter = new ClientFilterDTO();
+        filter.setIncomeMin(incomeMin);
+        filter.setIncomeMax(incomeMax);
+        filter.setBirthDateStart(birthDateStart);
+        filter.setChildrenMin(childrenMin);
+        filter.setChildrenMax(childrenMax);
+        return filter;
+    }
+
+    // Cada consulta de ClientRepository com argumentos reais. A busca por trecho do
+    // nome entra pelo trigrama mais raro; so o termo com menos de 3 letras cai no
+    // LIKE '%x%'
+    private Map<String, Runnable> consultas() {
+        Instant start = Instant.parse("1950-01-01T00:00:00Z");
+        Instant end = Instant.parse("1980-01-01T00:00:00Z");
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findById", () -> repository.findById(1L));
+        calls.put("findIdsByIdIn", () -> repository.findIdsByIdIn(List.of(1L, 2L, 3L)));
+        calls.put("findVersionById", () -> repository.findVersionById(1L));
+        calls.put("findByNameNormalized", () -> repository.findByNameNormalized("gilberto gil"));
+        calls.put("findByNameNormalizedStartingWith", () -> repository.findByNameNormalizedStartingWith("gil"));
+        calls.put("findByNameContainingIgnoreCase", () -> repository.findByNameContainingIgnoreCase("Gil"));
+        calls.put("findByCpfIn", () -> repository.findByCpfIn(List.of("10419344837", "10219344612")));
+        calls.put("findByIncomeGreaterThan", () -> repository.findByIncomeGreaterThan(5000.0));
+        calls.put("findByIncomeLessThan", () -> repository.findByIncomeLessThan(2000.0));
+        calls.put("findByIncomeBetween", () -> repository.findByIncomeBetween(2000.0, 5000.0));
+        calls.put("findByIncomeEqual", () -> repository.findByIncomeEqual(2500.0));
+        calls.put("findByBirthDateBetween", () -> repository.findByBirthDateBetween(start, end));
+        calls.put("findIdsByBirthDateBetween",
+                () -> repository.findIdsByBirthDateBetween(start, end, 0L, PageRequest.of(0, 100)));
+        calls.put("findByBirthdayWindow", () -> repository.findByBirthdayWindow(1201, 1231, 1950, 1960));
+        calls.put("countByBirthYearAndMonthDay", () -> repository.countByBirthYearAndMonthDay());
+        calls.put("findKeysetNameAsc", () -> repository.findKeyset("name", Sort.Direction.ASC, "Gilberto Gil", 5L, 12));
+        calls.put("findKeysetNameDesc", () -> repository.findKeyset("name", Sort.Direction.DESC, "Gilberto Gil", 5L, 12));
+        calls.put("findKeysetIncomeAsc", () -> repository.findKeyset("income", Sort.Direction.ASC, 2500.0, 5L, 12));
+        calls.put("findKeysetIncomeDesc", () -> repository.findKeyset("income", Sort.Direction.DESC, 2500.0, 5L, 12));
+        calls.put("findKeysetBirthDateAsc", () -> repository.findKeyset("birthDate", Sort.Direction.ASC, start, 5L, 12));
+        calls.put("findKeysetBirthDateDesc", () -> repository.findKeyset("birthDate", Sort.Direction.DESC, end, 5L, 12));
+        calls.put("findKeysetIncomeNulos", () -> repository.findKeyset("income", Sort.Direction.ASC, null, 5L, 12));
+        calls.put("findKeysetNameInicio", () -> repository.findKeyset("name", Sort.Direction.DESC, null, null, 12));
+        calls.put("searchIncomeAndBirthDate", () -> repository.findAllProjected(
+                ClientSpecifications.of(filtro(2000.0, 5000.0, Instant.parse("1990-01-01T00:00:00Z"), null, null), null),
+                PageRequest.of(0, 1)));
+        calls.put("searchChildren", () -> repository.findAllProjected(
+                ClientSpecifications.of(filtro(null, null, null, 1, 2), null), PageRequest.of(0, 1)));
+        calls.put("searchName", () -> repository.findAllProjected(
+                Specification.where(ClientSpecifications.nameContains("Saramago", "ama")), PageRequest.of(0, 1)));
+        calls.put("findRarestTrigram", () -> repository.findRarestTrigram(List.of("sar", "ara", "ram")));
+        return calls;
+    }
+
+    @DisplayName("Testar se o SQL de cada consulta do repositório é atendido por um índice, sem varrer a tabela.")
+    @Test
+    public void testarConsultasUsamIndice() {
+        consultas().forEach((name, call) -> {
+            List<Executed> statements = capturar(call);
+            assertThat(statements).as(name).isNotEmpty();
+            for (Executed executed : statements) {
+                String plan = jdbcTemplate.queryForObject("EXPLAIN " + executed.sql, String.class, executed.params);
+                assertThat(plan).as(name + ": " + plan).doesNotContain("tableScan");
+            }
+        });
+    }
+
+}
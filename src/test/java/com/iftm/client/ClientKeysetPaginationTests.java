@@ -0,0 +1,116 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientSliceDTO;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+@SpringBootTest
+public class ClientKeysetPaginationTests {
+
+    @Autowired
+    private ClientService service;
+
+    private List<Long> percorrerKeyset(String orderBy, Direction direction, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ClientSliceDTO slice = service.findAllKeyset(orderBy, direction, size, cursor);
+            assertThat(slice.getContent().size()).isLessThanOrEqualTo(size);
+            slice.getContent().forEach(dto -> ids.add(dto.getId()));
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private List<Long> percorrerOffset(String orderBy, Direction direction) {
+        return service.findAllPaged(PageRequest.of(0, 100, direction, orderBy, "id")).getContent().stream()
+                .map(ClientDTO::getId).collect(Collectors.toList());
+    }
+
+    @DisplayName("Testar se a paginação por keyset retorna a mesma sequência da paginação por offset.")
+    @Test
+    public void testarKeysetIgualOffset() {
+        for (String orderBy : List.of("name", "income", "birthDate")) {
+            for (Direction direction : Direction.values()) {
+                assertThat(percorrerKeyset(orderBy, direction, 5))
+                        .containsExactlyElementsOf(percorrerOffset(orderBy, direction));
+            }
+        }
+    }
+
+    @DisplayName("Testar se a última página não devolve cursor de continuação.")
+    @Test
+    public void testarUltimaPaginaSemCursor() {
+        ClientSliceDTO slice = service.findAllKeyset("name", Direction.ASC, 100, null);
+        assertThat(slice.isHasNext()).isFalse();
+        assertThat(slice.getNextCursor()).isNull();
+        assertThat(slice.getContent()).hasSize(13);
+    }
+
+    @DisplayName("Testar se cursor inválido ou de outra ordenação é rejeitado.")
+    @Test
+    public void testarCursorInvalido() {
+        String cursor = service.findAllKeyset("income", Direction.ASC, 5, null).getNextCursor();
+        assertThrows(InvalidRequestException.class, () -> service.findAllKeyset("name", Direction.ASC, 5, cursor));
+        assertThrows(InvalidRequestException.class, () -> service.findAllKeyset("name", Direction.ASC, 5, "@@@"));
+        assertThrows(InvalidRequestException.class, () -> service.findAllKeyset("cpf", Direction.ASC, 5, null));
+    }
+
+    @DisplayName("Testar se a paginação por keyset percorre clientes com nome, renda ou nascimento nulos.")
+    @Test
+    public void testarColunasNulas() {
+        List<ClientDTO> created = List.of(
+                service.insert(new ClientDTO(null, null, "85351346893", 1500.0, Instant.parse("1980-05-01T00:00:00Z"), 1)),
+                service.insert(new ClientDTO(null, "Zélia Gattai", "46127805074", null, null, 2)),
+                service.insert(new ClientDTO(null, null, "19827364537", null, Instant.parse("1996-12-23T07:00:00Z"), 0)),
+                service.insert(new ClientDTO(null, "Ana Maria Gonçalves", "71460238001", 1500.0, null, 3)));
+        Map<String, Function<ClientDTO, Comparable<?>>> columns = Map.of("name", ClientDTO::getName,
+                "income", ClientDTO::getIncome, "birthDate", ClientDTO::getBirthDate);
+        try {
+            List<ClientDTO> all = service.findAllPaged(PageRequest.of(0, 100)).getContent();
+            for (String orderBy : columns.keySet()) {
+                for (Direction direction : Direction.values()) {
+                    List<Long> expected = all.stream().sorted(ordem(columns.get(orderBy), direction))
+                            .map(ClientDTO::getId).collect(Collectors.toList());
+                    for (int size : List.of(1, 2, 3, 5)) {
+                        assertThat(percorrerKeyset(orderBy, direction, size)).as(orderBy + " " + direction + " " + size)
+                                .containsExactlyElementsOf(expected);
+                    }
+                }
+            }
+        } finally {
+            created.forEach(dto -> service.delete(dto.getId()));
+        }
+    }
+
+    // Nulos antes dos valores na ordem crescente e depois na decrescente; o id desempata
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Comparator<ClientDTO> ordem(Function<ClientDTO, Comparable<?>> column, Direction direction) {
+        Comparator<Comparable> values = direction.isAscending()
+                ? Comparator.nullsFirst(Comparator.<Comparable>naturalOrder())
+                : Comparator.nullsLast(Comparator.<Comparable>reverseOrder());
+        Comparator<ClientDTO> byColumn = (a, b) -> values.compare(column.apply(a), column.apply(b));
+        Comparator<ClientDTO> byId = Comparator.comparing(ClientDTO::getId);
+        return byColumn.thenComparing(direction.isAscending() ? byId : byId.reversed());
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest
+public class ClientMetricsTests {
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Timer timer(String name, String method, String exception) {
+        return registry.get(name).tag("method", method).tag("exception", exception).timer();
+    }
+
+    @DisplayName("Testar timers do serviço e do repositório, reaproveitados entre chamadas.")
+    @Test
+    public void testarTimersPorOperacao() {
+        service.findAllPaged(PageRequest.of(0, 5, Direction.ASC, "name"));
+        Timer service1 = timer("client.service", "findAllPaged", "none");
+        Timer repository1 = timer("client.repository", "findAllProjectedBy", "none");
+        long serviceCount = service1.count();
+        long repositoryCount = repository1.count();
+
+        service.findAllPaged(PageRequest.of(0, 5, Direction.ASC, "name"));
+
+        assertThat(timer("client.service", "findAllPaged", "none")).isSameAs(service1);
+        assertThat(service1.count()).isEqualTo(serviceCount + 1);
+        assertThat(repository1.count()).isEqualTo(repositoryCount + 1);
+        assertThat(service1.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @DisplayName("Testar timer separado por exceção lançada.")
+    @Test
+    public void testarTimerComExcecao() {
+        assertThrows(InvalidRequestException.class,
+                () -> service.findAllPaged(PageRequest.of(0, 5, Direction.ASC, "nameNormalized")));
+
+        assertThat(timer("client.service", "findAllPaged", "InvalidRequestException").count()).isPositive();
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.iftm.client;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClientPageSizeTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ResultActions executar(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    @DisplayName("Testar 400 quando linesPerPage passa do máximo configurado ou é menor que 1.")
+    @Test
+    public void testarTamanhoDePaginaInvalido() throws Exception {
+        for (String path : new String[] { "/clients", "/clients/search", "/clients/keyset" }) {
+            executar(get(path).param("linesPerPage", "101")).andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("linesPerPage must be between 1 and 100"));
+            executar(get(path).param("linesPerPage", "0")).andExpect(status().isBadRequest());
+            executar(get(path).param("linesPerPage", "100")).andExpect(status().isOk());
+        }
+        executar(get("/clients").param("page", "-1")).andExpect(status().isBadRequest());
+    }
+
+}
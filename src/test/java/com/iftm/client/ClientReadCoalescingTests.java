@@ -0,0 +1,245 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.metrics.StatementCounter;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.ReadCoalescer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Com o ClientCache desligado findById tambem passa pelo coalescer
+@SpringBootTest(properties = "client.cache.enabled=false")
+public class ClientReadCoalescingTests {
+
+    private static final int CALLS = 16;
+
+    // Threads marcadas param ao pedir conexao, ja dentro do voo, ate release
+    private static final ThreadLocal<CountDownLatch[]> HOLD = new ThreadLocal<>();
+
+    @TestConfiguration
+    static class HeldConnections {
+
+        @Bean
+        static BeanPostProcessor heldDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(ClientReadCoalescingTests.class.getClassLoader(),
+                            new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+                                CountDownLatch[] hold = HOLD.get();
+                                if (hold != null && method.getReturnType() == Connection.class) {
+                                    hold[0].countDown();
+                                    hold[1].await();
+                                }
+                                try {
+                                    return method.invoke(bean, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                            });
+                }
+            };
+        }
+
+    }
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private ReadCoalescer coalescer;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private double coalescidas(String query) {
+        return registry.get("client.reads.coalesced").tag("query", query).functionCounter().count();
+    }
+
+    private void aguardarCoalescidas(String query, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalescidas(query) < expected) {
+            assertThat(System.nanoTime()).as("calls did not join the flight").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    // Comandos SQL de uma chamada isolada, contados pelo StatementCounter
+    private <T> int comandos(Supplier<T> call) {
+        AtomicInteger count = StatementCounter.begin();
+        try {
+            call.get();
+            return count.get();
+        } finally {
+            StatementCounter.end();
+        }
+    }
+
+    // Um lider segura o voo dentro do ClientService enquanto CALLS chamadas
+    // iguais entram nele; devolve os resultados e soma em statements os comandos
+    // SQL de todas (StatementCounter.wrap leva o contador da thread do teste)
+    private <T> List<T> chamadasParalelas(String query, Supplier<T> call, AtomicInteger statements)
+            throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLS + 1);
+        AtomicReferenceArray<T> results = new AtomicReferenceArray<>(CALLS + 1);
+        List<Future<?>> calls = new ArrayList<>();
+        AtomicInteger count = StatementCounter.begin();
+        try {
+            double before = coalescidas(query);
+            calls.add(executor.submit(StatementCounter.wrap(() -> {
+                HOLD.set(new CountDownLatch[] { entered, release });
+                try {
+                    results.set(0, call.get());
+                } finally {
+                    HOLD.remove();
+                }
+            })));
+            assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i <= CALLS; i++) {
+                int index = i;
+                calls.add(executor.submit(StatementCounter.wrap(() -> results.set(index, call.get()))));
+            }
+            aguardarCoalescidas(query, before + CALLS);
+            release.countDown();
+
+            List<T> list = new ArrayList<>();
+            for (int i = 0; i <= CALLS; i++) {
+                calls.get(i).get(10, TimeUnit.SECONDS);
+                list.add(results.get(i));
+            }
+            statements.set(count.get());
+            return list;
+        } finally {
+            StatementCounter.end();
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("Testar se chamadas paralelas iguais de findAllPaged dividem uma única consulta.")
+    @Test
+    public void testarUmaConsultaParaChamadasParalelas() throws Exception {
+        PageRequest pageRequest = PageRequest.of(1, 4, Direction.DESC, "income");
+        int single = comandos(() -> service.findAllPaged(pageRequest));
+        assertThat(single).isPositive();
+
+        AtomicInteger statements = new AtomicInteger();
+        List<Page<ClientDTO>> pages = chamadasParalelas("findAllPaged",
+                () -> service.findAllPaged(PageRequest.of(1, 4, Direction.DESC, "income")), statements);
+
+        assertThat(statements.get()).isEqualTo(single);
+        assertThat(pages.get(0).getContent()).hasSize(4);
+        // Cada chamada recebe suas copias: alterar uma nao muda as outras
+        pages.get(0).getContent().forEach(client -> client.setName("Alterado"));
+        for (Page<ClientDTO> page : pages.subList(1, pages.size())) {
+            assertThat(page.getContent()).extracting(ClientDTO::getId)
+                    .containsExactlyElementsOf(pages.get(0).map(ClientDTO::getId).getContent());
+            assertThat(page.getContent()).extracting(ClientDTO::getName).doesNotContain("Alterado");
+        }
+        assertThat(pages.get(0).getTotalElements()).isEqualTo(13L);
+
+        // Sem voo em andamento a chamada volta a consultar o banco
+        assertThat(comandos(() -> service.findAllPaged(pageRequest))).isEqualTo(single);
+    }
+
+    @DisplayName("Testar se chamadas paralelas de findById com o cache desligado dividem uma única consulta.")
+    @Test
+    public void testarUmaConsultaPorIdComCacheDesligado() throws Exception {
+        entityManagerFactory.getCache().evict(Client.class, 3L);
+        int single = comandos(() -> service.findById(3L));
+        assertThat(single).isPositive();
+
+        entityManagerFactory.getCache().evict(Client.class, 3L);
+        AtomicInteger statements = new AtomicInteger();
+        List<ClientDTO> clients = chamadasParalelas("findById", () -> service.findById(3L), statements);
+
+        assertThat(statements.get()).isEqualTo(single);
+        assertThat(clients).hasSize(CALLS + 1).extracting(ClientDTO::getId).containsOnly(3L);
+        clients.get(1).setIncome(-1.0);
+        assertThat(clients).filteredOn(client -> client.getIncome() == -1.0).containsExactly(clients.get(1));
+    }
+
+    @DisplayName("Testar se uma escrita confirmada descarta o voo iniciado antes dela.")
+    @Test
+    public void testarEscritaDescartaVoo() throws Exception {
+        PageRequest pageRequest = PageRequest.of(0, 50, Direction.ASC, "name");
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ClientDTO created = null;
+        try {
+            // Voo aberto direto no coalescer e segurado ate release
+            Future<Page<ClientDTO>> stale = executor.submit(() -> coalescer.findAllPaged(pageRequest, () -> {
+                queries.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return repository.findAllProjectedBy(pageRequest);
+            }));
+            while (queries.get() == 0) {
+                Thread.sleep(1);
+            }
+            created = service.insert(new ClientDTO(null, "Ailton Krenak", "52998224725", 3000.0,
+                    Instant.parse("1953-09-29T00:00:00Z"), 1));
+
+            // Quem le depois de escrever nao entra no voo antigo
+            Page<ClientDTO> page = service.findAllPaged(pageRequest);
+            assertThat(page.getContent()).extracting(ClientDTO::getCpf).contains("52998224725");
+            release.countDown();
+            assertThat(stale.get(10, TimeUnit.SECONDS)).isNotSameAs(page);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            if (created != null) {
+                service.delete(created.getId());
+            }
+        }
+    }
+
+}
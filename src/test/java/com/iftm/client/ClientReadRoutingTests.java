@@ -0,0 +1,234 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.datasource.ReadYourWrites;
+import com.iftm.client.datasource.ReplicaLagMonitor;
+import com.iftm.client.datasource.ReplicaRoutingDataSource;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+import com.zaxxer.hikari.HikariDataSource;
+
+@SpringBootTest(properties = {
+        "client.datasource.routing.enabled=true",
+        "spring.datasource.url=" + ClientReadRoutingTests.PRIMARY,
+        "client.datasource.replica-urls=" + ClientReadRoutingTests.REPLICA_0 + "," + ClientReadRoutingTests.REPLICA_1,
+        "client.datasource.max-replica-lag=10s",
+        // As verificacoes do atraso sao feitas pelo proprio teste
+        "client.datasource.lag-check-interval-ms=600000" })
+@AutoConfigureMockMvc
+public class ClientReadRoutingTests {
+
+    static final String PRIMARY = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_0 = "jdbc:h2:mem:routing-replica-0;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_1 = "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    // As replicas recebem o mesmo schema e os mesmos dados; o primeiro cliente de
+    // cada uma e renomeado para identificar de onde a leitura veio
+    @BeforeAll
+    public static void criarReplicas() throws SQLException {
+        for (String url : List.of(REPLICA_0, REPLICA_1)) {
+            Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration", "classpath:db/testdata")
+                    .load().migrate();
+            String name = url.equals(REPLICA_0) ? "Replica 0" : "Replica 1";
+            executar(url, "UPDATE tb_client SET name = '" + name + "' WHERE id = (SELECT MIN(id) FROM tb_client)");
+        }
+    }
+
+    private static void executar(String url, String sql, Object... params) throws SQLException {
+        try (Connection con = DriverManager.getConnection(url, "sa", "");
+                PreparedStatement st = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                st.setObject(i + 1, params[i]);
+            }
+            st.executeUpdate();
+        }
+    }
+
+    private static long contar(String url, String cpf) throws SQLException {
+        try (Connection con = DriverManager.getConnection(url, "sa", "");
+                PreparedStatement st = con.prepareStatement("SELECT COUNT(*) FROM tb_client WHERE cpf = ?")) {
+            st.setString(1, cpf);
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    // Simula a replicacao do batimento com o atraso informado
+    private void atrasar(String replica, long lagMillis) throws SQLException {
+        executar(replica, "UPDATE tb_replication_heartbeat SET beat_at = ? WHERE id = 1",
+                new Timestamp(System.currentTimeMillis() - lagMillis));
+    }
+
+    private List<String> lerPrimeiroNome(int reads) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < reads; i++) {
+            names.add(service.findAllPaged(PageRequest.of(0, 1, Direction.ASC, "id")).getContent().get(0).getName());
+        }
+        return names;
+    }
+
+    // JdbcTemplate usa a conexao que a transacao JPA obteve do roteador
+    private String primeiroNomeNaTransacao(TransactionTemplate tx) {
+        return tx.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT name FROM tb_client WHERE id = (SELECT MIN(id) FROM tb_client)", String.class));
+    }
+
+    private MvcResult executar(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+
+    private long totalListado(String client) throws Exception {
+        MvcResult result = executar(get("/clients").param("linesPerPage", "1").header("X-Client-Id", client));
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return mapper.readTree(result.getResponse().getContentAsString()).get("totalElements").longValue();
+    }
+
+    @DisplayName("Testar se leituras somente leitura se alternam entre as réplicas em dia.")
+    @Test
+    public void testarRodizioEntreReplicas() throws Exception {
+        atrasar(REPLICA_0, 0);
+        atrasar(REPLICA_1, 0);
+        monitor.check();
+
+        List<String> names = lerPrimeiroNome(4);
+
+        assertThat(names).containsOnly("Replica 0", "Replica 1");
+        assertThat(names.stream().filter("Replica 0"::equals).count()).isEqualTo(2);
+    }
+
+    @DisplayName("Testar se replicas atrasadas saem do rodízio e, sem nenhuma, a leitura vai ao primário.")
+    @Test
+    public void testarReplicaAtrasada() throws Exception {
+        try {
+            atrasar(REPLICA_0, 3_600_000);
+            atrasar(REPLICA_1, 0);
+            monitor.check();
+            assertThat(lerPrimeiroNome(3)).containsOnly("Replica 1");
+
+            atrasar(REPLICA_1, 3_600_000);
+            monitor.check();
+            assertThat(lerPrimeiroNome(2)).doesNotContain("Replica 0", "Replica 1");
+        } finally {
+            atrasar(REPLICA_0, 0);
+            atrasar(REPLICA_1, 0);
+            monitor.check();
+        }
+    }
+
+    @DisplayName("Testar se a transação somente leitura usa uma réplica e, com ReadYourWrites, o primário.")
+    @Test
+    public void testarRoteamentoDaTransacao() throws Exception {
+        atrasar(REPLICA_0, 0);
+        atrasar(REPLICA_1, 0);
+        monitor.check();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertThat(primeiroNomeNaTransacao(readOnly)).isIn("Replica 0", "Replica 1");
+        assertThat(primeiroNomeNaTransacao(new TransactionTemplate(transactionManager)))
+                .isNotIn("Replica 0", "Replica 1");
+        ReadYourWrites.begin();
+        try {
+            assertThat(primeiroNomeNaTransacao(readOnly)).isNotIn("Replica 0", "Replica 1");
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    @DisplayName("Testar se os pools das réplicas fecham com o contexto.")
+    @Test
+    public void testarFechamentoDasReplicas() throws Exception {
+        assertThat(beanFactory.getBeanDefinition("routingDataSource").getDestroyMethodName()).isEqualTo("close");
+        assertThat(routingDataSource.getReplicas().values()).hasSize(2)
+                .allSatisfy(replica -> assertThat(((HikariDataSource) replica).isClosed()).isFalse());
+    }
+
+    @DisplayName("Testar se a escrita vai ao primário e só o cliente que escreveu lê dele em seguida.")
+    @Test
+    public void testarLeituraDaPropriaEscrita() throws Exception {
+        atrasar(REPLICA_0, 0);
+        atrasar(REPLICA_1, 0);
+        monitor.check();
+
+        ClientDTO dto = new ClientDTO(null, "Ailton Krenak", "52998224725", 3000.0, null, 1);
+        MvcResult created = executar(post("/clients").header("X-Client-Id", "writer")
+                .contentType(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(dto)));
+        assertThat(created.getResponse().getStatus()).isEqualTo(201);
+        Long id = mapper.readValue(created.getResponse().getContentAsString(), ClientDTO.class).getId();
+        try {
+            assertThat(contar(PRIMARY, "52998224725")).isEqualTo(1);
+            assertThat(contar(REPLICA_0, "52998224725") + contar(REPLICA_1, "52998224725")).isZero();
+
+            // Outro cliente le da replica, que ainda nao tem a escrita
+            assertThat(totalListado("reader")).isEqualTo(13);
+            assertThat(totalListado("writer")).isEqualTo(14);
+        } finally {
+            executar(delete("/clients/{id}", id).header("X-Client-Id", "writer"));
+        }
+        assertThat(contar(PRIMARY, "52998224725")).isZero();
+    }
+
+}
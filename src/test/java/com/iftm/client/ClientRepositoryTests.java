@@ -17,6 +17,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 
+import com.iftm.client.dto.ClientDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
 
@@ -208,4 +209,55 @@ public class ClientRepositoryTests {
         assertThat(clientRepository.count()).isEqualTo(12); // verifica se o número de registros diminuiu 1
     }
 
+    @DisplayName("Testar busca por nome ignorando acentos e maiúsculas.")
+    @Test
+    public void testarNomeIgnorandoAcentos() {
+        assertThat(clientRepository.findByNameIgnoreCase("CONCEICAO EVARISTO")).isPresent();
+        assertThat(clientRepository.findByNameContainingIgnoreCase("lazaro")).extracting("name")
+                .containsExactly("Lázaro Ramos");
+    }
+
+    @DisplayName("Testar busca por trecho no meio do nome e por termo curto, sem trigramas.")
+    @Test
+    public void testarNomePorTrecho() {
+        assertThat(clientRepository.findByNameContainingIgnoreCase("ARAMA")).extracting("name")
+                .containsExactly("Jose Saramago");
+        assertThat(clientRepository.findByNameContainingIgnoreCase("ção e")).extracting("name")
+                .containsExactly("Conceição Evaristo");
+        assertThat(clientRepository.findByNameContainingIgnoreCase("gi")).extracting("name")
+                .containsExactly("Gilberto Gil");
+        assertThat(clientRepository.findByNameContainingIgnoreCase("arma")).isEmpty();
+    }
+
+    @DisplayName("Testar se a busca por trecho escolhe o trigrama com menos clientes.")
+    @Test
+    public void testarTrigramaMaisRaro() {
+        assertThat(clientRepository.findRarestTrigram(List.of("ari", "sar"))).contains("sar");
+        assertThat(clientRepository.findRarestTrigram(List.of("ari", "xyz", "sar"))).contains("xyz");
+        assertThat(clientRepository.findNameTrigram("María")).contains("mar");
+        assertThat(clientRepository.findNameTrigram("gi")).isEmpty();
+    }
+
+    @DisplayName("Testar busca por trecho do nome depois de inserir e de alterar o cliente.")
+    @Test
+    public void testarNomePorTrechoAposGravar() {
+        Client novo = clientRepository.save(new Client(null, "Abdias Nascimento", "52998224725", 1000.0,
+                Instant.parse("1914-03-14T00:00:00Z"), 0));
+        assertThat(clientRepository.findByNameContainingIgnoreCase("nascim")).extracting("id")
+                .containsExactly(novo.getId());
+
+        clientRepository.updateColumns(1L, null, new ClientDTO(null, "Beatriz Nascimento", null, null, null, null),
+                true);
+        assertThat(clientRepository.findByNameContainingIgnoreCase("nascim")).extracting("id")
+                .containsExactlyInAnyOrder(1L, novo.getId());
+        assertThat(clientRepository.findByNameContainingIgnoreCase("evaristo")).isEmpty();
+    }
+
+    @DisplayName("Testar busca por prefixo do nome.")
+    @Test
+    public void testarNomePorPrefixo() {
+        List<Client> result = clientRepository.findByNameStartingWithIgnoreCase("jo");
+        assertThat(result).extracting("name").containsExactlyInAnyOrder("Jose Saramago", "Jorge Amado");
+    }
+
 }
@@ -0,0 +1,92 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+@SpringBootTest
+public class ClientSearchTests {
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final PageRequest pageRequest = PageRequest.of(0, 20, Direction.ASC, "income", "id");
+
+    @DisplayName("Testar busca combinando faixa de renda e data de nascimento.")
+    @Test
+    public void testarBuscaCombinada() {
+        ClientFilterDTO filter = new ClientFilterDTO();
+        filter.setIncomeMin(2000.0);
+        filter.setIncomeMax(5000.0);
+        filter.setBirthDateStart(Instant.parse("1990-01-01T00:00:00Z"));
+
+        Page<ClientDTO> result = service.search(filter, pageRequest);
+
+        assertThat(result.getContent()).isNotEmpty().allSatisfy(dto -> {
+            assertThat(dto.getIncome()).isBetween(2000.0, 5000.0);
+            assertThat(dto.getBirthDate()).isAfterOrEqualTo(Instant.parse("1990-01-01T00:00:00Z"));
+        });
+        assertThat(result.getContent()).extracting("name").contains("Lázaro Ramos");
+    }
+
+    @DisplayName("Testar busca por nome sem acentos e por número de filhos.")
+    @Test
+    public void testarBuscaNomeEFilhos() {
+        ClientFilterDTO filter = new ClientFilterDTO();
+        filter.setName("CONCEICAO");
+        filter.setChildrenMin(2);
+        filter.setChildrenMax(2);
+
+        Page<ClientDTO> result = service.search(filter, pageRequest);
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent().get(0).getName()).isEqualTo("Conceição Evaristo");
+    }
+
+    @DisplayName("Testar busca com intervalo invertido ou ordenação inválida.")
+    @Test
+    public void testarBuscaInvalida() {
+        ClientFilterDTO filter = new ClientFilterDTO();
+        filter.setIncomeMin(5000.0);
+        filter.setIncomeMax(1000.0);
+        assertThrows(InvalidRequestException.class, () -> service.search(filter, pageRequest));
+        assertThrows(InvalidRequestException.class,
+                () -> service.search(new ClientFilterDTO(), PageRequest.of(0, 20, Direction.ASC, "nameNormalized")));
+    }
+
+    @DisplayName("Testar se a busca projeta direto em DTO, sem carregar entidades.")
+    @Test
+    public void testarBuscaProjetada() {
+        ClientFilterDTO filter = new ClientFilterDTO();
+        filter.setChildrenMin(0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long loaded = statistics.getEntityLoadCount();
+
+        Page<ClientDTO> result = service.search(filter, pageRequest);
+
+        assertThat(result.getContent()).isNotEmpty().allSatisfy(dto -> assertThat(dto.getVersion()).isNotNull());
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(loaded);
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+
+@SpringBootTest
+public class ClientSecondLevelCacheTests {
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Client buscar(List<Client> clients, Long id) {
+        return clients.stream().filter(c -> c.getId().equals(id)).findFirst().orElse(null);
+    }
+
+    @DisplayName("Testar se a mesma consulta de finder é atendida pelo cache de consultas.")
+    @Test
+    public void testarCacheDeConsultas() {
+        Statistics stats = estatisticas();
+        stats.clear();
+
+        // Parametros que nenhum outro teste usa, para a primeira chamada ir ao banco
+        List<Client> primeira = repository.findByIncomeBetween(1000.25, 2000.25);
+        List<Client> segunda = repository.findByIncomeBetween(1000.25, 2000.25);
+
+        assertThat(segunda).extracting(Client::getId)
+                .containsExactlyElementsOf(primeira.stream().map(Client::getId).collect(Collectors.toList()));
+        assertThat(stats.getCacheRegionStatistics(ClientRepository.QUERY_CACHE_REGION).getPutCount()).isEqualTo(1);
+        assertThat(stats.getCacheRegionStatistics(ClientRepository.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(stats.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(primeira.size());
+    }
+
+    @DisplayName("Testar se nenhum resultado obsoleto sobrevive a alteração, alteração parcial e exclusão.")
+    @Test
+    public void testarSemResultadoObsoleto() {
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "52998224725", 4321.0,
+                Instant.parse("1953-09-29T00:00:00Z"), 1));
+        Long id = created.getId();
+        try {
+            // Aquece as consultas e a entidade no cache
+            assertThat(buscar(repository.findByIncomeBetween(4000.0, 4500.0), id)).isNotNull();
+            assertThat(buscar(repository.findByIncomeBetween(4000.0, 4500.0), id)).isNotNull();
+            assertThat(buscar(repository.findByNameContainingIgnoreCase("krenak"), id)).isNotNull();
+            assertThat(repository.findById(id)).isPresent();
+
+            ClientDTO changes = new ClientDTO();
+            changes.setIncome(9999.0);
+            service.patch(id, changes);
+            assertThat(buscar(repository.findByIncomeBetween(4000.0, 4500.0), id)).isNull();
+            assertThat(buscar(repository.findByIncomeBetween(9000.0, 10000.0), id).getIncome()).isEqualTo(9999.0);
+            assertThat(repository.findById(id).get().getIncome()).isEqualTo(9999.0);
+
+            ClientDTO renamed = service.findById(id);
+            renamed.setName("Davi Kopenawa");
+            service.update(id, renamed);
+            assertThat(buscar(repository.findByNameContainingIgnoreCase("krenak"), id)).isNull();
+            assertThat(buscar(repository.findByNameContainingIgnoreCase("kopenawa"), id).getName())
+                    .isEqualTo("Davi Kopenawa");
+
+            service.delete(id);
+            assertThat(buscar(repository.findByIncomeBetween(9000.0, 10000.0), id)).isNull();
+            assertThat(buscar(repository.findByNameContainingIgnoreCase("kopenawa"), id)).isNull();
+            assertThat(repository.findById(id)).isEmpty();
+        } finally {
+            if (repository.existsById(id)) {
+                service.delete(id);
+            }
+        }
+    }
+
+    @DisplayName("Testar se alterar um cliente mantém os demais no cache de entidades.")
+    @Test
+    public void testarAlteracaoSemEsvaziarRegiao() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "27548438923", 4321.0, null, 1));
+        Long id = created.getId();
+        try {
+            repository.findById(1L);
+            repository.findById(2L);
+            repository.findById(id);
+            assertThat(cache.containsEntity(Client.class, 1L)).isTrue();
+
+            ClientDTO changes = new ClientDTO();
+            changes.setIncome(9999.0);
+            service.patch(id, changes);
+            ClientDTO renamed = service.findById(id);
+            renamed.setName("Davi Kopenawa");
+            assertThat(service.update(id, renamed).getVersion()).isEqualTo(2L);
+
+            assertThat(cache.containsEntity(Client.class, 1L)).isTrue();
+            assertThat(cache.containsEntity(Client.class, 2L)).isTrue();
+            assertThat(cache.containsEntity(Client.class, id)).isFalse();
+            Client updated = repository.findById(id).get();
+            assertThat(updated.getName()).isEqualTo("Davi Kopenawa");
+            assertThat(updated.getIncome()).isEqualTo(9999.0);
+            assertThat(updated.getVersion()).isEqualTo(2L);
+        } finally {
+            service.delete(id);
+        }
+    }
+
+}
@@ -0,0 +1,268 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientSliceDTO;
+import com.iftm.client.services.ClientChangeFeed;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.sharding.ClientShards;
+import com.iftm.client.sharding.ShardExecutor;
+import com.iftm.client.sharding.ShardIds;
+
+@SpringBootTest(properties = {
+        "client.sharding.enabled=true",
+        "spring.datasource.url=" + ClientShardingTests.SHARD_0,
+        "client.sharding.shard-urls=" + ClientShardingTests.SHARD_1 + "," + ClientShardingTests.SHARD_2,
+        // Sem os dados de exemplo: eles nao estao no shard do proprio CPF
+        "spring.flyway.locations=classpath:db/migration",
+        "client.changes.dispatch-interval-ms=600000" })
+public class ClientShardingTests {
+
+    static final String SHARD_0 = "jdbc:h2:mem:sharding-0;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1 = "jdbc:h2:mem:sharding-1;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2 = "jdbc:h2:mem:sharding-2;DB_CLOSE_DELAY=-1";
+    static final List<String> URLS = List.of(SHARD_0, SHARD_1, SHARD_2);
+
+    private static final int CLIENTS = 30;
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientShards shards;
+
+    @Autowired
+    private ClientChangeFeed feed;
+
+    @Autowired
+    private RequestMappingHandlerAdapter adapter;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private ThreadPoolTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    @ShardExecutor
+    private ThreadPoolTaskExecutor shardExecutor;
+
+    // CPF valido a partir dos 9 primeiros digitos
+    private static String cpf(long base) {
+        String digits = String.format("%09d", base);
+        for (int length = 9; length <= 10; length++) {
+            int sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += (digits.charAt(i) - '0') * (length + 1 - i);
+            }
+            digits += sum * 10 % 11 % 10;
+        }
+        return digits;
+    }
+
+    private static long contar(String url, String sql, Object... params) throws SQLException {
+        try (Connection con = DriverManager.getConnection(url, "sa", "");
+                PreparedStatement st = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                st.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private List<ClientDTO> inserir() {
+        List<ClientDTO> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            Instant birthDate = i % 5 == 0 ? null : Instant.parse("1970-01-01T00:00:00Z").plusSeconds(86400L * 397 * i);
+            clients.add(service.insert(new ClientDTO(null, String.format("Cliente %02d", (i * 7) % CLIENTS),
+                    cpf(123_456_000L + 37L * i), 1000.0 + 250.0 * (i % 9), birthDate, i % 4)));
+        }
+        return clients;
+    }
+
+    private void remover(List<ClientDTO> clients) {
+        service.deleteAll(clients.stream().map(ClientDTO::getId).collect(Collectors.toList()));
+    }
+
+    private List<Long> ids(List<ClientDTO> clients) {
+        return clients.stream().map(ClientDTO::getId).collect(Collectors.toList());
+    }
+
+    @DisplayName("Testar se cada cliente vai para o shard do hash do CPF e é lido pelo shard do id.")
+    @Test
+    public void testarInsercaoNoShardDoCpf() throws SQLException {
+        List<ClientDTO> clients = inserir();
+        try {
+            int[] perShard = new int[URLS.size()];
+            for (ClientDTO client : clients) {
+                int shard = shards.shardForCpf(client.getCpf());
+                perShard[shard]++;
+                assertEquals(shard, ShardIds.shardOf(client.getId()));
+                for (int i = 0; i < URLS.size(); i++) {
+                    assertEquals(i == shard ? 1 : 0,
+                            contar(URLS.get(i), "SELECT COUNT(*) FROM tb_client WHERE id = ?", client.getId()));
+                }
+                assertEquals(client.getName(), service.findById(client.getId()).getName());
+                assertEquals(client.getId(), service.findByCpf(client.getCpf()).getId());
+            }
+            assertThat(perShard).doesNotContain(0);
+            assertThrows(ResourceNotFoundException.class, () -> service.findById(ShardIds.encode(7, 1)));
+        } finally {
+            remover(clients);
+        }
+    }
+
+    @DisplayName("Testar se as páginas intercaladas dos shards seguem a ordem e o total de um único banco.")
+    @Test
+    public void testarPaginacaoIntercalada() {
+        List<ClientDTO> clients = inserir();
+        try {
+            List<ClientDTO> byName = new ArrayList<>(clients);
+            byName.sort(Comparator.comparing(ClientDTO::getName));
+            List<ClientDTO> byIncomeDesc = new ArrayList<>(clients);
+            byIncomeDesc.sort(Comparator.comparing(ClientDTO::getIncome).reversed().thenComparing(ClientDTO::getId));
+            List<ClientDTO> byBirthDate = new ArrayList<>(clients);
+            byBirthDate.sort(Comparator.comparing(ClientDTO::getBirthDate, Comparator.nullsFirst(Comparator
+                    .<Instant>naturalOrder())).thenComparing(ClientDTO::getId));
+
+            assertEquals(ids(byName), lerPaginas(Sort.by(Direction.ASC, "name")));
+            assertEquals(ids(byIncomeDesc), lerPaginas(Sort.by(Direction.DESC, "income")));
+            assertEquals(ids(byBirthDate), lerPaginas(Sort.by(Direction.ASC, "birthDate")));
+
+            Page<Map<String, Object>> fields = service.findAllPaged(PageRequest.of(1, 4, Direction.DESC, "income"),
+                    List.of("name"));
+            assertEquals(CLIENTS, fields.getTotalElements());
+            assertEquals(byIncomeDesc.subList(4, 8).stream().map(ClientDTO::getName).collect(Collectors.toList()),
+                    fields.getContent().stream().map(row -> row.get("name")).collect(Collectors.toList()));
+            assertThat(fields.getContent()).allMatch(row -> row.keySet().equals(Set.of("name")));
+        } finally {
+            remover(clients);
+        }
+    }
+
+    private List<Long> lerPaginas(Sort sort) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; page * 7 < CLIENTS; page++) {
+            Page<ClientDTO> result = service.findAllPaged(PageRequest.of(page, 7, sort));
+            assertEquals(CLIENTS, result.getTotalElements());
+            ids.addAll(ids(result.getContent()));
+        }
+        return ids;
+    }
+
+    @DisplayName("Testar a paginação por cursor sobre todos os shards.")
+    @Test
+    public void testarPaginacaoPorCursor() {
+        List<ClientDTO> clients = inserir();
+        try {
+            List<ClientDTO> byName = new ArrayList<>(clients);
+            byName.sort(Comparator.comparing(ClientDTO::getName).reversed());
+
+            List<Long> ids = new ArrayList<>();
+            String cursor = null;
+            ClientSliceDTO slice;
+            do {
+                slice = service.findAllKeyset("name", Direction.DESC, 8, cursor);
+                ids.addAll(ids(slice.getContent()));
+                cursor = slice.getNextCursor();
+            } while (slice.isHasNext());
+
+            assertEquals(ids(byName), ids);
+        } finally {
+            remover(clients);
+        }
+    }
+
+    @DisplayName("Testar se escritas vão ao shard do id e um CPF de outro shard é recusado.")
+    @Test
+    public void testarEscritasNoShardDoId() {
+        List<ClientDTO> clients = inserir();
+        try {
+            ClientDTO client = clients.get(0);
+            ClientDTO changed = new ClientDTO(client.getId(), "Carolina Maria de Jesus", client.getCpf(),
+                    client.getIncome(), client.getBirthDate(), client.getChildren());
+            changed.setVersion(client.getVersion());
+            service.update(client.getId(), changed);
+            assertEquals("Carolina Maria de Jesus", service.findById(client.getId()).getName());
+
+            ClientDTO otherShard = clients.stream()
+                    .filter(x -> ShardIds.shardOf(x.getId()) != ShardIds.shardOf(client.getId())).findFirst().get();
+            ClientDTO patch = new ClientDTO(null, null, otherShard.getCpf(), null, null, null);
+            assertThrows(InvalidRequestException.class, () -> service.patch(client.getId(), patch));
+
+            service.delete(client.getId());
+            assertThrows(ResourceNotFoundException.class, () -> service.findById(client.getId()));
+            assertEquals(CLIENTS - 1, service.findAllPaged(PageRequest.of(0, 1)).getTotalElements());
+        } finally {
+            remover(clients);
+        }
+        assertEquals(0, service.findAllPaged(PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    @DisplayName("Testar se as alterações gravadas em todos os shards chegam ao feed numeradas.")
+    @Test
+    public void testarFeedDosShards() throws SQLException {
+        feed.dispatch();
+        long since = feed.getLastPosition();
+        List<ClientDTO> clients = inserir();
+        try {
+            feed.dispatch();
+
+            for (String url : URLS.subList(1, URLS.size())) {
+                assertEquals(0, contar(url, "SELECT COUNT(*) FROM tb_client_change"));
+            }
+            List<ClientChangeDTO> changes = feed.findAfter(since, 500);
+            assertThat(changes).allMatch(change -> change.getType() == ClientChangedEvent.Type.CREATED);
+            assertThat(changes.stream().map(ClientChangeDTO::getClientId)).containsExactlyInAnyOrderElementsOf(
+                    ids(clients));
+        } finally {
+            remover(clients);
+        }
+    }
+
+    @DisplayName("Testar se o pool dos shards só atende as consultas espalhadas, e não o MVC async.")
+    @Test
+    public void testarPoolDosShards() {
+        assertThat(ReflectionTestUtils.getField(adapter, "taskExecutor")).isSameAs(applicationTaskExecutor)
+                .isNotSameAs(shardExecutor);
+        assertThat(applicationTaskExecutor.getThreadNamePrefix()).isEqualTo("mvc-async-");
+
+        List<String> threads = shards.scatter(shard -> Thread.currentThread().getName());
+        assertThat(threads).hasSize(URLS.size()).allSatisfy(name -> assertThat(name).startsWith("shard-"));
+    }
+
+}
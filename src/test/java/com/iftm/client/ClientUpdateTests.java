@@ -0,0 +1,88 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.ConflictException;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+
+@SpringBootTest
+@Transactional
+public class ClientUpdateTests {
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    private Client recarregar(Long id) {
+        return clientRepository.findById(id).get();
+    }
+
+    @DisplayName("Testar se a atualização com a versão atual grava os dados e incrementa a versão.")
+    @Test
+    public void testarAtualizacaoComVersaoAtual() {
+        ClientDTO dto = new ClientDTO(null, "Gilberto Passos Gil", "10419344882", 3000.0,
+                Instant.parse("1942-06-26T07:00:00Z"), 8);
+        dto.setVersion(0L);
+
+        ClientDTO result = service.update(5L, dto);
+
+        assertThat(result.getVersion()).isEqualTo(1L);
+        Client client = recarregar(5L);
+        assertThat(client.getVersion()).isEqualTo(1L);
+        assertThat(client.getIncome()).isEqualTo(3000.0);
+        assertThat(clientRepository.findByNameIgnoreCase("gilberto passos gil")).isPresent();
+    }
+
+    @DisplayName("Testar se a atualização com versão antiga é rejeitada sem perder a escrita anterior.")
+    @Test
+    public void testarAtualizacaoComVersaoAntiga() {
+        ClientDTO primeira = new ClientDTO(null, "Gilberto Gil", "10419344882", 3000.0, null, 4);
+        primeira.setVersion(0L);
+        service.update(5L, primeira);
+
+        ClientDTO segunda = new ClientDTO(null, "Gilberto Gil", "10419344882", 100.0, null, 4);
+        segunda.setVersion(0L);
+        assertThrows(ConflictException.class, () -> service.update(5L, segunda));
+        assertThat(recarregar(5L).getIncome()).isEqualTo(3000.0);
+    }
+
+    @DisplayName("Testar atualização de id inexistente.")
+    @Test
+    public void testarAtualizacaoIdInexistente() {
+        ClientDTO dto = new ClientDTO(null, "Ninguém", null, null, null, null);
+        assertThrows(ResourceNotFoundException.class, () -> service.update(1000L, dto));
+        dto.setVersion(0L);
+        assertThrows(ResourceNotFoundException.class, () -> service.patch(1000L, dto));
+    }
+
+    @DisplayName("Testar se a atualização parcial grava somente os campos informados.")
+    @Test
+    public void testarAtualizacaoParcial() {
+        ClientDTO dto = new ClientDTO();
+        dto.setIncome(12000.0);
+
+        service.patch(8L, dto);
+
+        Client client = recarregar(8L);
+        assertThat(client.getIncome()).isEqualTo(12000.0);
+        assertThat(client.getName()).isEqualTo("Toni Morrison");
+        assertThat(client.getCpf()).isEqualTo("10219344612");
+        assertThat(client.getVersion()).isEqualTo(1L);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.iftm.client.dto.BatchResultDTO;
+import com.iftm.client.dto.BatchResultDTO.Status;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.CpfIndex;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+
+@SpringBootTest
+public class CpfIndexTests {
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private CpfIndex cpfIndex;
+
+    @DisplayName("Testar busca por CPF com e sem pontuação.")
+    @Test
+    public void testarBuscaPorCpf() {
+        assertThat(service.findByCpf("10419344837").getName()).isEqualTo("Gilberto Gil");
+        assertThat(service.findByCpf("104.193.448-37").getName()).isEqualTo("Gilberto Gil");
+        assertThrows(InvalidRequestException.class, () -> service.findByCpf("104.193.448-38"));
+        assertThrows(InvalidRequestException.class, () -> service.findByCpf("11111111111"));
+        assertThrows(ResourceNotFoundException.class, () -> service.findByCpf("52998224725"));
+    }
+
+    @DisplayName("Testar se o índice acompanha inclusão, troca de CPF e exclusão.")
+    @Test
+    public void testarIndiceAcompanhaEscritas() {
+        ClientDTO created = service.insert(new ClientDTO(null, "Ailton Krenak", "52998224725", 3000.0,
+                Instant.parse("1953-09-29T00:00:00Z"), 1));
+        try {
+            assertThat(service.findByCpf("529.982.247-25").getId()).isEqualTo(created.getId());
+
+            created.setCpf("11144477735");
+            service.update(created.getId(), created);
+            assertThat(cpfIndex.exists(List.of("52998224725", "111.444.777-35", "abc")))
+                    .containsExactly(entry("52998224725", false), entry("111.444.777-35", true), entry("abc", false));
+        } finally {
+            service.delete(created.getId());
+        }
+        assertThat(cpfIndex.findId("11144477735")).isNull();
+    }
+
+    @DisplayName("Testar se CPF formatado é gravado só com dígitos e conflita com a forma sem formatação.")
+    @Test
+    public void testarCpfFormatadoNaGravacao() {
+        ClientDTO created = service.insert(new ClientDTO(null, "Beatriz Nascimento", "198.273.645-37", 2600.0,
+                Instant.parse("1942-07-12T00:00:00Z"), 1));
+        try {
+            assertThat(created.getCpf()).isEqualTo("19827364537");
+            assertThat(service.findById(created.getId()).getCpf()).isEqualTo("19827364537");
+            assertThat(service.findByCpf("19827364537").getId()).isEqualTo(created.getId());
+            assertThat(cpfIndex.exists(List.of("198.273.645-37"))).containsExactly(entry("198.273.645-37", true));
+
+            assertThrows(DataIntegrityViolationException.class, () -> service.insert(new ClientDTO(null,
+                    "Outra Pessoa", "19827364537", 1000.0, null, 0)));
+
+            // Upsert pelo CPF formatado atualiza o mesmo cliente
+            List<BatchResultDTO> results = service.upsertAll(List.of(new ClientDTO(null, "Beatriz Nascimento",
+                    "198 273 645 37", 2700.0, Instant.parse("1942-07-12T00:00:00Z"), 1)));
+            assertThat(results).extracting(BatchResultDTO::getStatus).containsExactly(Status.UPDATED);
+            assertThat(results.get(0).getId()).isEqualTo(created.getId());
+            assertThat(service.findByCpf("198.273.645-37").getIncome()).isEqualTo(2700.0);
+        } finally {
+            service.delete(created.getId());
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Instant;
+import java.util.DoubleSummaryStatistics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.IncomeIndex;
+
+@SpringBootTest
+public class IncomeIndexTests {
+
+    @Autowired
+    private ClientService service;
+
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private IncomeIndex index;
+
+    // O indice tem que bater com a coluna income do banco (clientes sem renda ficam de fora)
+    private void conferirComBanco() {
+        DoubleSummaryStatistics expected = repository.findAll().stream().map(Client::getIncome)
+                .filter(income -> income != null).mapToDouble(Double::doubleValue).summaryStatistics();
+        IncomeStatsDTO stats = index.stats(null, null, 1);
+
+        assertThat(stats.getCount()).isEqualTo(expected.getCount());
+        assertThat(stats.getSum()).isCloseTo(expected.getSum(), within(0.001));
+        assertThat(stats.getMin()).isEqualTo(expected.getMin());
+        assertThat(stats.getMax()).isEqualTo(expected.getMax());
+    }
+
+    @DisplayName("Testar se o índice de renda acompanha inclusão, atualização, patch e exclusão.")
+    @Test
+    public void testarConsistenciaComBanco() {
+        conferirComBanco();
+        ClientDTO created = service.insert(new ClientDTO(null, "Lélia Gonzalez", "85351346893", 123456.0,
+                Instant.parse("1935-02-01T00:00:00Z"), 0));
+        boolean deleted = false;
+        try {
+            conferirComBanco();
+            assertThat(index.stats(null, null, 1).getMax()).isEqualTo(123456.0);
+
+            service.update(created.getId(), new ClientDTO(null, "Lélia Gonzalez", "85351346893", 654321.0,
+                    Instant.parse("1935-02-01T00:00:00Z"), 0));
+            conferirComBanco();
+            assertThat(index.stats(123456.0, 123456.0, 1).getCount()).isZero();
+
+            ClientDTO changes = new ClientDTO();
+            changes.setChildren(1);
+            service.patch(created.getId(), changes);
+            conferirComBanco();
+
+            changes = new ClientDTO();
+            changes.setIncome(111111.0);
+            service.patch(created.getId(), changes);
+            conferirComBanco();
+            assertThat(index.stats(111111.0, 111111.0, 1).getCount()).isEqualTo(1);
+
+            service.update(created.getId(), new ClientDTO(null, "Lélia Gonzalez", "85351346893", null,
+                    Instant.parse("1935-02-01T00:00:00Z"), 0));
+            conferirComBanco();
+
+            service.delete(created.getId());
+            deleted = true;
+            conferirComBanco();
+        } finally {
+            if (!deleted) {
+                service.delete(created.getId());
+            }
+        }
+    }
+
+}
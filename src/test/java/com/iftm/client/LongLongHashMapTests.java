@@ -0,0 +1,52 @@
+package com.iftm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iftm.client.util.LongLongHashMap;
+
+public class LongLongHashMapTests {
+
+    @DisplayName("Testar inclusão, substituição e remoção de chaves.")
+    @Test
+    public void testarOperacoesBasicas() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        assertEquals(LongLongHashMap.MISSING, map.put(10619244836L, 1L));
+        assertEquals(1L, map.put(10619244836L, 2L));
+        assertEquals(2L, map.get(10619244836L));
+        assertEquals(2L, map.remove(10619244836L));
+        assertFalse(map.containsKey(10619244836L));
+        assertEquals(0, map.size());
+    }
+
+    @DisplayName("Testar se o mapa continua igual a um HashMap após muitas inclusões e remoções.")
+    @Test
+    public void testarContraHashMap() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Long previous = expected.remove(key);
+                assertEquals(previous == null ? LongLongHashMap.MISSING : previous, map.remove(key));
+            } else {
+                Long previous = expected.put(key, (long) i);
+                assertEquals(previous == null ? LongLongHashMap.MISSING : previous, map.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongLongHashMap.MISSING), map.get(key));
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.iftm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iftm.client.util.SingleFlight;
+
+public class SingleFlightTests {
+
+    private static final int CALLS = 16;
+
+    // Dispara CALLS chamadas da mesma chave e so libera o loader quando todas as outras ja esperam por ele
+    private List<Future<Object>> disparar(ExecutorService executor, SingleFlight<String, Object> flights,
+            CountDownLatch release, AtomicInteger loads, RuntimeException failure) throws InterruptedException {
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLS; i++) {
+            results.add(executor.submit(() -> flights.execute("page=0&size=12", () -> {
+                loads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                return new Object();
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flights.joined() < CALLS - 1) {
+            assertTrue(System.nanoTime() < deadline, "calls did not join the flight");
+            Thread.sleep(1);
+        }
+        release.countDown();
+        return results;
+    }
+
+    @DisplayName("Testar se chamadas simultâneas iguais executam o loader uma única vez e recebem o mesmo resultado.")
+    @Test
+    public void testarUmaCargaParaChamadasSimultaneas() throws Exception {
+        SingleFlight<String, Object> flights = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLS);
+        try {
+            List<Future<Object>> results = disparar(executor, flights, new CountDownLatch(1), loads, null);
+            Object first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(CALLS - 1, flights.joined());
+            assertEquals(0, flights.inFlight());
+
+            // Terminado o voo, a proxima chamada vai de novo ao loader
+            assertEquals("again", flights.execute("page=0&size=12", () -> "again"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("Testar se a falha do loader chega a todas as chamadas e não deixa a chave presa.")
+    @Test
+    public void testarFalhaPropagadaELimpa() throws Exception {
+        SingleFlight<String, Object> flights = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+        ExecutorService executor = Executors.newFixedThreadPool(CALLS);
+        try {
+            List<Future<Object>> results = disparar(executor, flights, new CountDownLatch(1), loads, failure);
+            for (Future<Object> result : results) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+                assertSame(failure, e.getCause());
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, flights.inFlight());
+            assertEquals("recovered", flights.execute("page=0&size=12", () -> "recovered"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
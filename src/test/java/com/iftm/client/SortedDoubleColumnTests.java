@@ -0,0 +1,49 @@
+package com.iftm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iftm.client.util.SortedDoubleColumn;
+
+public class SortedDoubleColumnTests {
+
+    @DisplayName("Testar contagem e soma por faixa com buscas binárias.")
+    @Test
+    public void testarContagemESomaPorFaixa() {
+        SortedDoubleColumn column = new SortedDoubleColumn();
+        column.reset(new double[] { 2500.0, 1500.0, 7500.0, 1500.0, 4500.0 });
+
+        SortedDoubleColumn.Snapshot values = column.snapshot();
+        int from = values.lowerBound(1500.0);
+        int to = values.upperBound(4500.0);
+
+        assertEquals(4, to - from);
+        assertEquals(10000.0, values.sum(from, to));
+        assertEquals(0, values.upperBound(1000.0));
+        assertEquals(5, values.lowerBound(8000.0));
+    }
+
+    @DisplayName("Testar se inclusões e remoções pendentes são intercaladas na leitura.")
+    @Test
+    public void testarIntercalacaoDoDelta() {
+        SortedDoubleColumn column = new SortedDoubleColumn();
+        column.reset(new double[] { 1500.0, 2500.0, 2500.0 });
+
+        column.add(3800.0);
+        column.remove(2500.0);
+        column.add(1000.0);
+        column.remove(1000.0);
+        column.add(2500.0);
+
+        SortedDoubleColumn.Snapshot values = column.snapshot();
+        assertEquals(4, values.size());
+        assertEquals(1500.0, values.get(0));
+        assertEquals(2500.0, values.get(1));
+        assertEquals(2500.0, values.get(2));
+        assertEquals(3800.0, values.get(3));
+        assertEquals(10300.0, values.sum(0, values.size()));
+    }
+
+}
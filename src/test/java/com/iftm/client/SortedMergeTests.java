@@ -0,0 +1,33 @@
+package com.iftm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iftm.client.util.SortedMerge;
+
+public class SortedMergeTests {
+
+    @DisplayName("Testar se listas ordenadas são intercaladas na ordem global, com offset e limite.")
+    @Test
+    public void testarIntercalacaoComOffsetELimite() {
+        List<List<Integer>> sorted = List.of(List.of(1, 4, 9), List.of(), List.of(2, 3, 10, 11), List.of(5));
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 9, 10, 11), SortedMerge.merge(sorted, Comparator.naturalOrder(), 0, 100));
+        assertEquals(List.of(4, 5, 9), SortedMerge.merge(sorted, Comparator.naturalOrder(), 3, 3));
+        assertEquals(List.of(), SortedMerge.merge(sorted, Comparator.naturalOrder(), 8, 3));
+    }
+
+    @DisplayName("Testar a intercalação em ordem decrescente.")
+    @Test
+    public void testarIntercalacaoDecrescente() {
+        List<List<Integer>> sorted = List.of(List.of(9, 4, 1), List.of(11, 10, 3, 2));
+
+        assertEquals(List.of(11, 10, 9, 4), SortedMerge.merge(sorted, Comparator.reverseOrder(), 0, 4));
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.iftm.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.iftm.client.metrics.StatementCountFilter;
+import com.iftm.client.metrics.StatementCounter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class StatementCountFilterTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementCountFilter filter = new StatementCountFilter(2, registry);
+
+    // Simula o Hibernate preparando comandos SQL na thread da requisicao
+    private static void executarComandos(int statements) {
+        StatementCounter inspector = new StatementCounter();
+        for (int i = 0; i < statements; i++) {
+            inspector.inspect("select 1");
+        }
+    }
+
+    private long requisicoes() {
+        return registry.get("client.request.statements").summary().count();
+    }
+
+    private double excessivas() {
+        return registry.get("client.request.statements.excessive").counter().count();
+    }
+
+    @DisplayName("Testar contagem de comandos SQL por requisição e aviso acima do limite.")
+    @Test
+    public void testarContagemEAviso(CapturedOutput output) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/clients");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                executarComandos(2);
+            }
+        });
+        assertThat(requisicoes()).isEqualTo(1);
+        assertThat(registry.get("client.request.statements").summary().totalAmount()).isEqualTo(2.0);
+        assertThat(excessivas()).isZero();
+        assertThat(output).doesNotContain("Possible N+1");
+
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/clients/search");
+        filter.doFilter(other, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                executarComandos(5);
+            }
+        });
+        assertThat(requisicoes()).isEqualTo(2);
+        assertThat(registry.get("client.request.statements").summary().max()).isEqualTo(5.0);
+        assertThat(excessivas()).isEqualTo(1.0);
+        assertThat(output).contains("Possible N+1: GET /clients/search issued 5 SQL statements (limit 2)");
+
+        // Fora de uma requisicao nada e contado
+        executarComandos(3);
+        assertThat(registry.get("client.request.statements").summary().totalAmount()).isEqualTo(7.0);
+    }
+
+    @DisplayName("Testar registro único de requisição async encerrada por timeout ou erro.")
+    @Test
+    public void testarRequisicaoAsyncComTimeoutEErro() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            boolean timeout = i == 0;
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/clients/export");
+            request.setAsyncSupported(true);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest req, ServletResponse res) {
+                    executarComandos(1);
+                    req.startAsync(req, res);
+                }
+            });
+            assertThat(requisicoes()).isEqualTo(i);
+
+            MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+            AsyncEvent event = new AsyncEvent(context, new IllegalStateException("falha"));
+            for (AsyncListener listener : context.getListeners()) {
+                if (timeout) {
+                    listener.onTimeout(event);
+                } else {
+                    listener.onError(event);
+                }
+            }
+            assertThat(requisicoes()).isEqualTo(i + 1);
+
+            // O container ainda chama onComplete depois do timeout/erro
+            context.complete();
+            assertThat(requisicoes()).isEqualTo(i + 1);
+        }
+    }
+
+}